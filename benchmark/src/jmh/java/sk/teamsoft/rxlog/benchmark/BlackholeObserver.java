@@ -0,0 +1,49 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscription;
+
+import io.reactivex.CompletableObserver;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observer;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Consumer of all RxJava2 types, which sinks everything into a blackhole
+ * @author Dusan Bartos
+ */
+final class BlackholeObserver implements Observer<Object>, FlowableSubscriber<Object>,
+        SingleObserver<Object>, MaybeObserver<Object>, CompletableObserver {
+
+    private final Blackhole bh;
+
+    BlackholeObserver(Blackhole bh) {
+        this.bh = bh;
+    }
+
+    @Override public void onSubscribe(Disposable d) {
+        bh.consume(d);
+    }
+
+    @Override public void onSubscribe(Subscription s) {
+        s.request(Long.MAX_VALUE);
+    }
+
+    @Override public void onNext(Object o) {
+        bh.consume(o);
+    }
+
+    @Override public void onSuccess(Object o) {
+        bh.consume(o);
+    }
+
+    @Override public void onError(Throwable e) {
+        bh.consume(e);
+    }
+
+    @Override public void onComplete() {
+        bh.consume(true);
+    }
+}
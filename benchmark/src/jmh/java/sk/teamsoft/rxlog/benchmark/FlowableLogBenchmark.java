@@ -0,0 +1,62 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import sk.teamsoft.rxlog.RxLog;
+import timber.log.Timber;
+
+/**
+ * Per-event cost of {@link RxLog#logFlowable(String, int)}, see {@link ObservableLogBenchmark}
+ * @author Dusan Bartos
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class FlowableLogBenchmark {
+
+    static final int COUNT = 1000;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32", "128", "3", "63", "191"})
+    public int mask;
+
+    @Param({"sync", "fused"})
+    public String source;
+
+    @Param({Trees.NOOP, Trees.FORMATTING})
+    public String tree;
+
+    private Flowable<Integer> stream;
+
+    @Setup public void setup() {
+        Trees.plant(tree);
+        Flowable<Integer> range = Flowable.range(0, COUNT);
+        if ("sync".equals(source)) {
+            range = range.hide();
+        }
+        final Flowable<Integer> logged = range.compose(RxLog.<Integer>logFlowable("bench", mask));
+        stream = Flowable.just(1).concatMap(i -> logged);
+    }
+
+    @TearDown public void tearDown() {
+        Timber.uprootAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void flowable(Blackhole bh) {
+        stream.subscribe(new BlackholeObserver(bh));
+    }
+}
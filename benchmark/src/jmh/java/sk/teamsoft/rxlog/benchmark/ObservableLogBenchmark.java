@@ -0,0 +1,66 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import sk.teamsoft.rxlog.RxLog;
+import timber.log.Timber;
+
+/**
+ * Per-event cost of {@link RxLog#logObservable(String, int)}
+ * <p>
+ * Mask 0 is the baseline, transformer without enabled events returns upstream unchanged.
+ * Synchronous source is hidden behind {@code hide()}, fused source is a range consumed by
+ * concatMap, which requests synchronous fusion through the logging operator
+ * @author Dusan Bartos
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class ObservableLogBenchmark {
+
+    static final int COUNT = 1000;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32", "64", "128", "3", "127", "255"})
+    public int mask;
+
+    @Param({"sync", "fused"})
+    public String source;
+
+    @Param({Trees.NOOP, Trees.FORMATTING})
+    public String tree;
+
+    private Observable<Integer> stream;
+
+    @Setup public void setup() {
+        Trees.plant(tree);
+        Observable<Integer> range = Observable.range(0, COUNT);
+        if ("sync".equals(source)) {
+            range = range.hide();
+        }
+        final Observable<Integer> logged = range.compose(RxLog.<Integer>logObservable("bench", mask));
+        stream = Observable.just(1).concatMap(i -> logged);
+    }
+
+    @TearDown public void tearDown() {
+        Timber.uprootAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void observable(Blackhole bh) {
+        stream.subscribe(new BlackholeObserver(bh));
+    }
+}
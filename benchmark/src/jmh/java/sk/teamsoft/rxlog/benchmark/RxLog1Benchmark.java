@@ -0,0 +1,81 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Subscriber;
+import sk.teamsoft.rxlog1.RxLog1;
+import timber.log.Timber;
+
+/**
+ * Per-event cost of {@link RxLog1#log(String, int)}, to be compared with
+ * {@link ObservableLogBenchmark}
+ * <p>
+ * Masks use the same bits as in RxLog (32 terminate, 64 unsubscribe, 128 metrics, 256 request).
+ * Sources are set up the same way as in {@link ObservableLogBenchmark}, so results can be compared
+ * row by row. RxJava1 has no operator fusion, range is consumed by concatMap through its producer
+ * in both cases, "sync" only hides the range behind {@code asObservable()}
+ * @author Dusan Bartos
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class RxLog1Benchmark {
+
+    static final int COUNT = 1000;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32", "64", "128", "256", "3", "127", "255"})
+    public int mask;
+
+    @Param({"sync", "fused"})
+    public String source;
+
+    @Param({Trees.NOOP, Trees.FORMATTING})
+    public String tree;
+
+    private Observable<Integer> stream;
+
+    @Setup public void setup() {
+        Trees.plant(tree);
+        Observable<Integer> range = Observable.range(0, COUNT);
+        if ("sync".equals(source)) {
+            range = range.asObservable();
+        }
+        final Observable<Integer> logged = range.compose(RxLog1.<Integer>log("bench", mask));
+        stream = Observable.just(1).concatMap(i -> logged);
+    }
+
+    @TearDown public void tearDown() {
+        Timber.uprootAll();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void observable(final Blackhole bh) {
+        stream.subscribe(new Subscriber<Integer>() {
+            @Override public void onNext(Integer value) {
+                bh.consume(value);
+            }
+
+            @Override public void onError(Throwable e) {
+                bh.consume(e);
+            }
+
+            @Override public void onCompleted() {
+                bh.consume(true);
+            }
+        });
+    }
+}
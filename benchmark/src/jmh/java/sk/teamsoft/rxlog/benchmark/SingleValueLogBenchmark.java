@@ -0,0 +1,64 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.Maybe;
+import io.reactivex.Single;
+import sk.teamsoft.rxlog.RxLog;
+import timber.log.Timber;
+
+/**
+ * Per-subscription cost of Single, Maybe and Completable transformers, every operation is one
+ * subscribe, one success/complete event and teardown
+ * @author Dusan Bartos
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class SingleValueLogBenchmark {
+
+    @Param({"0", "1", "2", "4", "8", "16", "64", "128", "95", "223"})
+    public int mask;
+
+    @Param({Trees.NOOP, Trees.FORMATTING})
+    public String tree;
+
+    private Single<Integer> single;
+    private Maybe<Integer> maybe;
+    private Completable completable;
+
+    @Setup public void setup() {
+        Trees.plant(tree);
+        single = Single.just(1).compose(RxLog.<Integer>logSingle("bench", mask));
+        maybe = Maybe.just(1).compose(RxLog.<Integer>logMaybe("bench", mask));
+        completable = Completable.complete().compose(RxLog.logCompletable("bench", mask));
+    }
+
+    @TearDown public void tearDown() {
+        Timber.uprootAll();
+    }
+
+    @Benchmark public void single(Blackhole bh) {
+        single.subscribe(new BlackholeObserver(bh));
+    }
+
+    @Benchmark public void maybe(Blackhole bh) {
+        maybe.subscribe(new BlackholeObserver(bh));
+    }
+
+    @Benchmark public void completable(Blackhole bh) {
+        completable.subscribe(new BlackholeObserver(bh));
+    }
+}
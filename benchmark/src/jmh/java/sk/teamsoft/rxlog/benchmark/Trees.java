@@ -0,0 +1,56 @@
+package sk.teamsoft.rxlog.benchmark;
+
+import timber.log.Timber;
+
+/**
+ * Timber trees used by benchmarks
+ * @author Dusan Bartos
+ */
+final class Trees {
+
+    static final String NOOP = "noop";
+    static final String FORMATTING = "formatting";
+
+    private Trees() {
+        throw new AssertionError("No instances.");
+    }
+
+    static void plant(String kind) {
+        Timber.uprootAll();
+        switch (kind) {
+            case NOOP:
+                Timber.plant(new NoopTree());
+                break;
+            case FORMATTING:
+                Timber.plant(new FormattingTree());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tree: " + kind);
+        }
+    }
+
+    /**
+     * Rejects every line before formatting, measures cost of the operator itself
+     */
+    static final class NoopTree extends Timber.Tree {
+
+        @Override protected boolean isLoggable(String tag, int priority) {
+            return false;
+        }
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+        }
+    }
+
+    /**
+     * Formats every line and keeps the last one, measures cost of logging without I/O
+     */
+    static final class FormattingTree extends Timber.Tree {
+
+        volatile String last;
+
+        @Override protected void log(int priority, String tag, String message, Throwable t) {
+            last = message;
+        }
+    }
+}
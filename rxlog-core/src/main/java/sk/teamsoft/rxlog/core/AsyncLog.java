@@ -0,0 +1,222 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Opt-in asynchronous logging mode
+ * <p>
+ * When started, RxLog operators only publish a small record into a bounded lock-free ring buffer,
+ * and a single background thread formats the lines and writes them to the {@link LogSink} in
+ * batches. This keeps formatting and logcat/file I/O off the emitting (computation/io) threads
+ * <p>
+ * Emitted items ({@link Payload} arguments) are still rendered on the emitting thread when the
+ * event is published, as they may be mutated or recycled once the emitter moves on. Only joining
+ * of the line is deferred to the drainer
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class AsyncLog {
+
+    /**
+     * What to do when the ring buffer is full
+     */
+    public enum OverflowPolicy {
+        /** discard the event which is being published */
+        DROP_NEWEST,
+        /** evict the oldest pending event to make room for the new one */
+        DROP_OLDEST,
+        /** wait on the emitting thread until the drainer frees a slot */
+        BLOCK
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** max number of events passed to the sink in a single call */
+    public static final int MAX_BATCH = 256;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong published = new AtomicLong();
+
+    private static volatile Drainer drainer;
+
+    private AsyncLog() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Starts asynchronous mode with {@link #DEFAULT_CAPACITY} and {@link OverflowPolicy#DROP_NEWEST}
+     */
+    public static void start() {
+        start(DEFAULT_CAPACITY, OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Starts asynchronous mode. Restarts it if already running, pending events of the previous
+     * buffer are still written out
+     * @param capacity max number of pending events (rounded up to power of two)
+     * @param policy   overflow policy
+     */
+    public static synchronized void start(int capacity, OverflowPolicy policy) {
+        if (policy == null) {
+            throw new NullPointerException("policy == null");
+        }
+        stop();
+        Drainer d = new Drainer(new RingBuffer(capacity), policy);
+        d.start();
+        drainer = d;
+    }
+
+    /**
+     * Stops asynchronous mode. Events published so far are still written by the drainer thread
+     * before it exits, events published concurrently with the stop are written by their emitting
+     * threads, new events are logged synchronously again
+     */
+    public static synchronized void stop() {
+        Drainer d = drainer;
+        if (d != null) {
+            drainer = null;
+            d.shutdown();
+        }
+    }
+
+    public static boolean isRunning() {
+        return drainer != null;
+    }
+
+    /**
+     * @return number of events dropped because of full buffer, since class load
+     */
+    public static long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return number of events accepted into the buffer, since class load
+     */
+    public static long publishedCount() {
+        return published.get();
+    }
+
+    /**
+     * @return number of events waiting to be written
+     */
+    public static long pendingCount() {
+        Drainer d = drainer;
+        return d != null ? d.buffer.size() : 0;
+    }
+
+    /**
+     * Publishes log line into the buffer
+     * @return false if asynchronous mode is not running, and caller has to log the line himself
+     */
+    static boolean publish(int priority, LineFormat format, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        Drainer d = drainer;
+        if (d == null) {
+            return false;
+        }
+        arg0 = Payload.render(arg0);
+        arg1 = Payload.render(arg1);
+        arg2 = Payload.render(arg2);
+        arg3 = Payload.render(arg3);
+        arg4 = Payload.render(arg4);
+        RingBuffer buffer = d.buffer;
+        LogRecord record = buffer.claim();
+        while (record == null) {
+            switch (d.policy) {
+                case DROP_NEWEST:
+                    dropped.incrementAndGet();
+                    return true;
+                case DROP_OLDEST:
+                    if (buffer.poll(null)) {
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                default:
+                    if (d.stopped) {
+                        // nobody frees the slot anymore
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    break;
+            }
+            record = buffer.claim();
+        }
+        record.set(priority, System.currentTimeMillis(), LineFormat.threadName(), format, arg0, arg1, arg2, arg3, arg4);
+        buffer.publish(record);
+        published.incrementAndGet();
+        if (d.stopped) {
+            // stopped meanwhile, the drainer may have exited before this event was visible to it
+            drain(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * Writes events left in the buffer of a stopped drainer on the calling thread
+     */
+    private static void drain(RingBuffer buffer) {
+        LogRecord record = new LogRecord();
+        List<LogEvent> batch = new ArrayList<>();
+        while (buffer.poll(record)) {
+            batch.add(record.toEvent());
+        }
+        if (!batch.isEmpty()) {
+            LogOutput.getSink().write(batch);
+        }
+    }
+
+    private static final class Drainer extends Thread {
+
+        final RingBuffer buffer;
+        final OverflowPolicy policy;
+        volatile boolean stopped;
+
+        Drainer(RingBuffer buffer, OverflowPolicy policy) {
+            super("RxLog-drainer");
+            this.buffer = buffer;
+            this.policy = policy;
+            setDaemon(true);
+        }
+
+        void shutdown() {
+            stopped = true;
+            LockSupport.unpark(this);
+        }
+
+        @Override public void run() {
+            final LogRecord record = new LogRecord();
+            final List<LogEvent> batch = new ArrayList<>(MAX_BATCH);
+            for (; ; ) {
+                boolean stopping = stopped;
+                if (stopping) {
+                    // pairs with the increment by producers: events counted before this read are
+                    // visible to the polls below, producers counting later see the stop and
+                    // write their events themselves
+                    published.get();
+                }
+                while (batch.size() < MAX_BATCH && buffer.poll(record)) {
+                    batch.add(record.toEvent());
+                    record.clear();
+                }
+                if (!batch.isEmpty()) {
+                    try {
+                        LogOutput.getSink().write(batch);
+                    } catch (Throwable e) {
+                        // never let a failing sink kill the drainer
+                    }
+                    batch.clear();
+                } else if (stopping) {
+                    return;
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        }
+    }
+}
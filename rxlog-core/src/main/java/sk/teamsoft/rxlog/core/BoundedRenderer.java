@@ -0,0 +1,146 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@link PayloadRenderer} with a size budget
+ * <p>
+ * Collections, maps and arrays are rendered as their first {@code maxElements} elements followed
+ * by total size, strings and rendered lines are capped to {@code maxLength} characters. Nested
+ * containers are rendered only up to two levels deep
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class BoundedRenderer implements PayloadRenderer {
+
+    public static final BoundedRenderer DEFAULT = new BoundedRenderer(16, 1024);
+
+    private static final int MAX_DEPTH = 2;
+    private static final String ELLIPSIS = "...";
+
+    private final int maxElements;
+    private final int maxLength;
+
+    /**
+     * @param maxElements max number of rendered elements of collections, maps and arrays
+     * @param maxLength   max length of rendered text
+     */
+    public BoundedRenderer(int maxElements, int maxLength) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements < 0: " + maxElements);
+        }
+        if (maxLength <= 0) {
+            throw new IllegalArgumentException("maxLength <= 0: " + maxLength);
+        }
+        this.maxElements = maxElements;
+        this.maxLength = maxLength;
+    }
+
+    @Override public String render(Object item) {
+        StringBuilder sb = new StringBuilder(Math.min(maxLength, 64));
+        append(sb, item, 0);
+        if (sb.length() > maxLength) {
+            sb.setLength(maxLength);
+            sb.append(ELLIPSIS);
+        }
+        return sb.toString();
+    }
+
+    private void append(StringBuilder sb, Object item, int depth) {
+        if (item instanceof CharSequence) {
+            appendText(sb, (CharSequence) item);
+        } else if (item instanceof Collection) {
+            appendCollection(sb, (Collection<?>) item, depth);
+        } else if (item instanceof Map) {
+            appendMap(sb, (Map<?, ?>) item, depth);
+        } else if (item != null && item.getClass().isArray()) {
+            appendArray(sb, item, depth);
+        } else {
+            appendText(sb, String.valueOf(item));
+        }
+    }
+
+    private void appendText(StringBuilder sb, CharSequence text) {
+        int room = maxLength - sb.length();
+        if (text.length() <= room) {
+            sb.append(text);
+        } else if (room > 0) {
+            sb.append(text, 0, room).append(ELLIPSIS).append("(length=").append(text.length()).append(')');
+        }
+    }
+
+    private void appendCollection(StringBuilder sb, Collection<?> items, int depth) {
+        int size = items.size();
+        if (depth >= MAX_DEPTH) {
+            appendSize(sb, items, size);
+            return;
+        }
+        sb.append('[');
+        int i = 0;
+        for (Iterator<?> it = items.iterator(); it.hasNext() && i < maxElements && !isFull(sb); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            append(sb, it.next(), depth + 1);
+        }
+        closeContainer(sb, ']', i, size);
+    }
+
+    private void appendMap(StringBuilder sb, Map<?, ?> items, int depth) {
+        int size = items.size();
+        if (depth >= MAX_DEPTH) {
+            appendSize(sb, items, size);
+            return;
+        }
+        sb.append('{');
+        int i = 0;
+        for (Iterator<? extends Map.Entry<?, ?>> it = items.entrySet().iterator(); it.hasNext() && i < maxElements && !isFull(sb); i++) {
+            Map.Entry<?, ?> entry = it.next();
+            if (i > 0) {
+                sb.append(", ");
+            }
+            append(sb, entry.getKey(), depth + 1);
+            sb.append('=');
+            append(sb, entry.getValue(), depth + 1);
+        }
+        closeContainer(sb, '}', i, size);
+    }
+
+    private void appendArray(StringBuilder sb, Object array, int depth) {
+        int size = Array.getLength(array);
+        if (depth >= MAX_DEPTH) {
+            appendSize(sb, array, size);
+            return;
+        }
+        sb.append('[');
+        int i = 0;
+        for (; i < size && i < maxElements && !isFull(sb); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            append(sb, Array.get(array, i), depth + 1);
+        }
+        closeContainer(sb, ']', i, size);
+    }
+
+    private static void closeContainer(StringBuilder sb, char close, int rendered, int size) {
+        if (rendered < size) {
+            if (rendered > 0) {
+                sb.append(", ");
+            }
+            sb.append(ELLIPSIS).append(" (size=").append(size).append(')');
+        }
+        sb.append(close);
+    }
+
+    private static void appendSize(StringBuilder sb, Object container, int size) {
+        sb.append(container.getClass().getSimpleName()).append("(size=").append(size).append(')');
+    }
+
+    private boolean isFull(StringBuilder sb) {
+        return sb.length() >= maxLength;
+    }
+}
@@ -0,0 +1,142 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves user-code call sites of assembled sources and caches loggers created for them
+ * <p>
+ * The first user class is found from the class context of the call, which does not materialize
+ * any stack frames, so assemblies from classes which are not included cost no stack trace. The
+ * stack trace, which is needed for the line of the call site, is captured only for included
+ * classes, or where the class context is not available (Android). It is scanned only up to the
+ * first user frame, tag formatting and logger creation happen at most once per assembly location.
+ * The cache is bounded, when full an arbitrary entry is evicted
+ * <p>
+ * Used by the assembly instrumentation of both adapters, frames of RxJava and RxLog itself are
+ * never a call site
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class CallSites {
+
+    /** classes of the current stack, null if the platform does not provide them */
+    private static final ClassContext CONTEXT = ClassContext.create();
+
+    /** frames of these packages are never considered to be a call site */
+    private static final String[] INTERNAL = {
+            "sk.teamsoft.rxlog.", "sk.teamsoft.rxlog1.", "io.reactivex.", "rx.", "java.", "javax.", "jdk.", "sun.", "dalvik.", "com.android.internal."
+    };
+
+    /** cached marker of excluded call sites, ConcurrentHashMap does not allow null values */
+    private static final EventLogger EXCLUDED = new EventLogger("", 0, LogOptions.DEFAULT);
+
+    private final int bitMask;
+    private final LogOptions options;
+    private final String[] includes;
+    private final String[] skips;
+    private final int maxSize;
+    private final ConcurrentMap<StackTraceElement, EventLogger> cache = new ConcurrentHashMap<>();
+
+    public CallSites(int bitMask, LogOptions options, String[] includes, String[] skips, int maxSize) {
+        this.bitMask = bitMask;
+        this.options = options;
+        this.includes = includes;
+        this.skips = skips;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return logger of current call site, or null if the call site is filtered out
+     */
+    public EventLogger current() {
+        Class<?>[] classes = CONTEXT != null ? CONTEXT.classes() : null;
+        if (classes != null && !isIncluded(userClass(classes))) {
+            return null;
+        }
+        StackTraceElement frame = userFrame(new Throwable().getStackTrace());
+        if (frame == null) {
+            return null;
+        }
+        EventLogger logger = cache.get(frame);
+        if (logger == null) {
+            logger = isIncluded(frame.getClassName()) ? new EventLogger(tag(frame), bitMask, options) : EXCLUDED;
+            if (cache.size() >= maxSize) {
+                evictOne();
+            }
+            cache.put(frame, logger);
+        }
+        return logger != EXCLUDED ? logger : null;
+    }
+
+    private StackTraceElement userFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (!startsWithAny(className, INTERNAL) && !startsWithAny(className, skips)) {
+                return frame;
+            }
+        }
+        return null;
+    }
+
+    private String userClass(Class<?>[] classes) {
+        for (Class<?> c : classes) {
+            String className = c.getName();
+            if (!startsWithAny(className, INTERNAL) && !startsWithAny(className, skips)) {
+                return className;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return false for null class name, i.e. when there is no user frame
+     */
+    private boolean isIncluded(String className) {
+        if (className == null) {
+            return false;
+        }
+        return includes.length == 0 || startsWithAny(className, includes);
+    }
+
+    private void evictOne() {
+        Iterator<StackTraceElement> it = cache.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static String tag(StackTraceElement frame) {
+        String className = frame.getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+    }
+
+    private static boolean startsWithAny(String className, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exposes classes of the current stack, they are resolved without creating stack trace elements
+     */
+    private static final class ClassContext extends SecurityManager {
+
+        static ClassContext create() {
+            try {
+                return new ClassContext();
+            } catch (SecurityException e) {
+                return null;
+            }
+        }
+
+        Class<?>[] classes() {
+            return getClassContext();
+        }
+    }
+}
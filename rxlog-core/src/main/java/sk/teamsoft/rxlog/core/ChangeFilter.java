@@ -0,0 +1,56 @@
+package sk.teamsoft.rxlog.core;
+
+import static sk.teamsoft.rxlog.core.LogEvent.DEBUG;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Per-subscription state of change-only logging, passes only items which differ from the last
+ * passed one by {@link ItemKey}
+ * <p>
+ * Duplicates are only counted, the count is reported before the next change and on termination.
+ * Rx guarantees serialized onNext calls, so the state is not synchronized
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ChangeFilter {
+
+    private static final LineFormat UNCHANGED = LineFormat.of("[unchanged] %s%s %s duplicates not logged");
+
+    private final ItemKey key;
+
+    private boolean started;
+    private Object lastKey;
+    private long duplicates;
+
+    public ChangeFilter(ItemKey key) {
+        this.key = key;
+    }
+
+    /**
+     * @return true if the item differs from the last passed item, so it should be logged
+     */
+    public boolean changed(Object item) {
+        Object k = key.keyOf(item);
+        Object last = lastKey;
+        if (started && (k == last || (k != null && k.equals(last)))) {
+            duplicates++;
+            return false;
+        }
+        started = true;
+        lastKey = k;
+        return true;
+    }
+
+    /**
+     * Logs number of duplicates since the last change, if any, and resets the counter
+     * @param msg      stream message
+     * @param idSuffix subscription id suffix of the message
+     */
+    public void report(String msg, String idSuffix) {
+        long count = duplicates;
+        if (count > 0) {
+            duplicates = 0;
+            print(DEBUG, UNCHANGED, msg, idSuffix, count);
+        }
+    }
+}
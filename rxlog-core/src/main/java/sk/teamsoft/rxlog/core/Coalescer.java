@@ -0,0 +1,108 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Aggregates next events of a single subscription into summary lines
+ * <p>
+ * A summary is printed when the window since the first item of the batch elapses (checked by
+ * {@link LogTimer}), when the batch reaches max count, or when the subscription terminates or
+ * is disposed. Only the first and last item of a batch are kept
+ * @author Dusan Bartos
+ */
+final class Coalescer implements Runnable {
+
+    private final LogSession session;
+    private final EventLogger logger;
+    private final long windowNanos;
+    private final int maxCount;
+
+    // guarded by this, items come from the emitting thread while the timer flushes
+    private int count;
+    private long firstAt;
+    private long lastAt;
+    private Object first;
+    private Object last;
+    private boolean scheduled;
+    private boolean closed;
+
+    Coalescer(LogSession session, EventLogger logger, long windowNanos, int maxCount) {
+        this.session = session;
+        this.logger = logger;
+        this.windowNanos = windowNanos;
+        this.maxCount = maxCount;
+    }
+
+    void add(Object data) {
+        boolean full;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (count == 0) {
+                firstAt = now;
+                first = data;
+                if (windowNanos > 0 && !scheduled && !closed) {
+                    scheduled = true;
+                    LogTimer.schedule(this, windowNanos);
+                }
+            }
+            lastAt = now;
+            last = data;
+            count++;
+            full = maxCount > 0 && count >= maxCount;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Prints pending summary and stops timed flushing, used on terminal events and dispose
+     */
+    void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    /**
+     * Timer callback, flushes the batch if its window elapsed, otherwise waits for the rest of it
+     */
+    @Override public void run() {
+        synchronized (this) {
+            scheduled = false;
+            if (closed || count == 0) {
+                return;
+            }
+            long remaining = firstAt + windowNanos - System.nanoTime();
+            if (remaining > 0) {
+                scheduled = true;
+                LogTimer.schedule(this, remaining);
+                return;
+            }
+        }
+        try {
+            flush();
+        } catch (Throwable e) {
+            // never let a failing tree kill the shared timer
+        }
+    }
+
+    private void flush() {
+        int n;
+        long duration;
+        Object f;
+        Object l;
+        synchronized (this) {
+            n = count;
+            if (n == 0) {
+                return;
+            }
+            duration = lastAt - firstAt;
+            f = first;
+            l = last;
+            count = 0;
+            first = null;
+            last = null;
+        }
+        logger.nextSummary(logger.mask(), session, n, duration, f, l);
+    }
+}
@@ -0,0 +1,93 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backpressure accounting of a single subscription (Flowable, or RxJava1 Observable)
+ * <p>
+ * Tracks outstanding demand (requested minus delivered items) and the moment when the demand
+ * dropped to zero, so that periods in which upstream could not emit because downstream did not
+ * request more can be reported. Requests are serialized by the Reactive Streams spec, but may
+ * come from any thread, concurrently with onNext
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class DemandTracker {
+
+    private final AtomicLong outstanding = new AtomicLong();
+    /** System.nanoTime() when outstanding demand dropped to zero, 0 if there is demand */
+    private final AtomicLong exhaustedAt = new AtomicLong();
+    private volatile long requested;
+    private volatile long delivered;
+
+    /**
+     * @param n requested amount
+     * @return nanoseconds the subscription spent with zero demand before this request, or 0
+     */
+    public long request(long n) {
+        requested = addCap(requested, n);
+        for (; ; ) {
+            long current = outstanding.get();
+            if (current == Long.MAX_VALUE || outstanding.compareAndSet(current, addCap(current, n))) {
+                break;
+            }
+        }
+        return stalledNanos(exhaustedAt.getAndSet(0));
+    }
+
+    public void next() {
+        delivered++;
+        for (; ; ) {
+            long current = outstanding.get();
+            if (current == Long.MAX_VALUE) {
+                return;
+            }
+            if (outstanding.compareAndSet(current, current - 1)) {
+                if (current == 1) {
+                    markExhausted();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts zero-demand period. A request may arrive between the decrement and setting of the
+     * timestamp and find no period to end, so demand is checked again afterwards and the period
+     * is withdrawn if it is already satisfied
+     */
+    private void markExhausted() {
+        long now = System.nanoTime();
+        if (exhaustedAt.compareAndSet(0, now) && outstanding.get() > 0) {
+            exhaustedAt.compareAndSet(now, 0);
+        }
+    }
+
+    /**
+     * @return nanoseconds of current zero-demand period, or 0 if there is demand
+     */
+    public long stalledNanos() {
+        return stalledNanos(exhaustedAt.get());
+    }
+
+    public long outstanding() {
+        return outstanding.get();
+    }
+
+    public long requested() {
+        return requested;
+    }
+
+    public long delivered() {
+        return delivered;
+    }
+
+    private static long stalledNanos(long since) {
+        return since == 0 ? 0 : System.nanoTime() - since;
+    }
+
+    private static long addCap(long a, long b) {
+        long r = a + b;
+        return r < 0 ? Long.MAX_VALUE : r;
+    }
+}
@@ -0,0 +1,261 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sk.teamsoft.rxlog.core.LogEvent.ERROR;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Opt-in deduplication of error events, against error storms (e.g. retryWhen loops against a
+ * failing backend)
+ * <p>
+ * Errors are keyed by their signature - stream message, exception class, exception message and
+ * top stack frames. The first occurrence of a signature is logged in full, with stack trace.
+ * Repeats are only counted, and reported by one summary line at the end of every window, in
+ * which they occurred, e.g. {@code [onError] sync - timeout x412 in last 10000ms}. So the stack
+ * trace of a signature is rendered at most once per window
+ * <p>
+ * Signatures are kept in a bounded LRU cache, the least recently seen one is evicted (and its
+ * summary written) when the cache is full. Signatures without any repeat for a whole window are
+ * evicted, their next occurrence is logged in full again. Windows are driven by {@link LogTimer}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ErrorDedup {
+
+    public static final int DEFAULT_MAX_SIGNATURES = 256;
+    public static final int DEFAULT_STACK_FRAMES = 3;
+
+    private static final LineFormat SUMMARY = LineFormat.of("[onError] %s - %s x%s in last %sms");
+
+    private static final AtomicLong suppressed = new AtomicLong();
+
+    private static volatile ErrorDedup current;
+
+    private final long windowNanos;
+    private final int maxSignatures;
+    private final int stackFrames;
+    /** signatures in access order, guarded by itself */
+    private final LinkedHashMap<Signature, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private ErrorDedup(long windowNanos, int maxSignatures, int stackFrames) {
+        this.windowNanos = windowNanos;
+        this.maxSignatures = maxSignatures;
+        this.stackFrames = stackFrames;
+    }
+
+    /**
+     * Enables deduplication with {@link #DEFAULT_MAX_SIGNATURES} and {@link #DEFAULT_STACK_FRAMES}
+     * @param window length of the summary window
+     * @param unit   time unit
+     */
+    public static void enable(long window, TimeUnit unit) {
+        enable(window, unit, DEFAULT_MAX_SIGNATURES, DEFAULT_STACK_FRAMES);
+    }
+
+    /**
+     * Enables deduplication, replaces previous settings (pending summaries are written out)
+     * @param window        length of the summary window
+     * @param unit          time unit
+     * @param maxSignatures max number of tracked signatures
+     * @param stackFrames   number of top stack frames, which are part of the signature
+     */
+    public static synchronized void enable(long window, TimeUnit unit, int maxSignatures, int stackFrames) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window <= 0: " + window);
+        }
+        if (maxSignatures <= 0) {
+            throw new IllegalArgumentException("maxSignatures <= 0: " + maxSignatures);
+        }
+        if (stackFrames < 0) {
+            throw new IllegalArgumentException("stackFrames < 0: " + stackFrames);
+        }
+        disable();
+        current = new ErrorDedup(unit.toNanos(window), maxSignatures, stackFrames);
+    }
+
+    /**
+     * Disables deduplication, pending summaries are written out
+     */
+    public static synchronized void disable() {
+        ErrorDedup d = current;
+        if (d != null) {
+            current = null;
+            d.flushAll();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * @return number of error events, which were not logged because of deduplication, since class load
+     */
+    public static long suppressedCount() {
+        return suppressed.get();
+    }
+
+    /**
+     * Passes error event of a stream through the deduplication
+     * @param tag stream message
+     * @param e   error
+     * @return null if the event is a repeat and must not be logged, otherwise the last argument of
+     * the error line - empty if deduplication is disabled, lazily rendered stack trace (on a new
+     * line) for the first occurrence of the signature
+     */
+    public static Object trace(String tag, Throwable e) {
+        ErrorDedup d = current;
+        if (d == null) {
+            return "";
+        }
+        return d.first(tag, e) ? new StackTrace(e) : null;
+    }
+
+    private boolean first(String tag, Throwable e) {
+        Signature signature = new Signature(tag, e, stackFrames);
+        Entry evicted = null;
+        synchronized (entries) {
+            Entry entry = entries.get(signature);
+            if (entry != null) {
+                entry.count++;
+                suppressed.incrementAndGet();
+                return false;
+            }
+            entry = new Entry(signature, message(e));
+            entries.put(signature, entry);
+            if (entries.size() > maxSignatures) {
+                Iterator<Entry> it = entries.values().iterator();
+                evicted = it.next();
+                it.remove();
+                evicted.timeout.cancel();
+            }
+            entry.timeout = LogTimer.schedule(entry, windowNanos);
+        }
+        if (evicted != null) {
+            evicted.report(System.nanoTime());
+        }
+        return true;
+    }
+
+    private void flushAll() {
+        List<Entry> flushed;
+        synchronized (entries) {
+            flushed = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        long now = System.nanoTime();
+        for (Entry entry : flushed) {
+            entry.timeout.cancel();
+            entry.report(now);
+        }
+    }
+
+    private static String message(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Occurrences of one signature, runs at the end of each of its windows
+     */
+    private final class Entry implements Runnable {
+
+        final Signature signature;
+        final String message;
+        /** repeats in current window, guarded by entries */
+        long count;
+        long windowStart = System.nanoTime();
+        LogTimer.Timeout timeout;
+
+        Entry(Signature signature, String message) {
+            this.signature = signature;
+            this.message = message;
+        }
+
+        @Override public void run() {
+            long now = System.nanoTime();
+            long repeats;
+            long start;
+            synchronized (entries) {
+                if (entries.get(signature) != this) {
+                    return;
+                }
+                repeats = count;
+                start = windowStart;
+                if (repeats == 0) {
+                    entries.remove(signature);
+                    return;
+                }
+                count = 0;
+                windowStart = now;
+                timeout = LogTimer.schedule(this, windowNanos);
+            }
+            print(ERROR, SUMMARY, signature.tag, message, repeats, TimeUnit.NANOSECONDS.toMillis(now - start));
+        }
+
+        /**
+         * Writes summary of an evicted entry
+         */
+        void report(long now) {
+            long repeats;
+            long start;
+            synchronized (entries) {
+                repeats = count;
+                start = windowStart;
+                count = 0;
+            }
+            if (repeats > 0) {
+                print(ERROR, SUMMARY, signature.tag, message, repeats, TimeUnit.NANOSECONDS.toMillis(now - start));
+            }
+        }
+    }
+
+    /**
+     * Cache key, equal for errors of the same stream, class, message and top stack frames
+     */
+    private static final class Signature {
+
+        final String tag;
+        final Class<?> type;
+        final String message;
+        final StackTraceElement[] frames;
+        final int hash;
+
+        Signature(String tag, Throwable e, int stackFrames) {
+            this.tag = tag;
+            this.type = e.getClass();
+            this.message = e.getMessage();
+            StackTraceElement[] trace = e.getStackTrace();
+            this.frames = trace.length > stackFrames ? Arrays.copyOf(trace, stackFrames) : trace;
+            int h = tag != null ? tag.hashCode() : 0;
+            h = 31 * h + type.hashCode();
+            h = 31 * h + (message != null ? message.hashCode() : 0);
+            this.hash = 31 * h + Arrays.hashCode(frames);
+        }
+
+        @Override public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return hash == other.hash
+                    && type == other.type
+                    && (tag != null ? tag.equals(other.tag) : other.tag == null)
+                    && (message != null ? message.equals(other.message) : other.message == null)
+                    && Arrays.equals(frames, other.frames);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package sk.teamsoft.rxlog.core;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Opt-in binary journal of RxLog events
+ * <p>
+ * While open, enabled events are not formatted and written to the sink, but stored as compact
+ * fixed-size records into a memory-mapped ring file. Once the file is full, the oldest records
+ * are overwritten. Stream tags and thread names are kept in a side dictionary file
+ * ({@code <journal>.dict}), so each of them is written only once. Use {@link JournalDecoder} to
+ * turn the journal back into readable lines
+ * <pre>
+ * EventJournal.open(new File(context.getFilesDir(), "rx.journal"), 8 * 1024 * 1024);
+ * </pre>
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class EventJournal {
+
+    static volatile JournalWriter writer;
+
+    private EventJournal() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Opens the journal, truncating given file and its dictionary. Closes previous journal if open
+     * @param file     journal file
+     * @param maxBytes max size of the journal file
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public static synchronized void open(File file, long maxBytes) throws IOException {
+        close();
+        writer = new JournalWriter(file, dictionaryOf(file), maxBytes);
+    }
+
+    /**
+     * Flushes and closes the journal, events are logged as text lines again
+     * @throws IOException if flushing fails
+     */
+    public static synchronized void close() throws IOException {
+        JournalWriter w = writer;
+        if (w != null) {
+            writer = null;
+            w.close();
+        }
+    }
+
+    public static boolean isOpen() {
+        return writer != null;
+    }
+
+    /**
+     * @return number of records written into current journal, including overwritten ones
+     */
+    public static long writtenCount() {
+        JournalWriter w = writer;
+        return w != null ? w.written() : 0;
+    }
+
+    /**
+     * @return side dictionary file of given journal
+     */
+    public static File dictionaryOf(File journal) {
+        return new File(journal.getPath() + ".dict");
+    }
+}
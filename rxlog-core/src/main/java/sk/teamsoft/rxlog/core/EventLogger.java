@@ -0,0 +1,364 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.TimeUnit;
+
+import static sk.teamsoft.rxlog.core.LogEvent.DEBUG;
+import static sk.teamsoft.rxlog.core.LogEvent.ERROR;
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogEvent.VERBOSE;
+import static sk.teamsoft.rxlog.core.LogEvent.WARN;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_CANCEL;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_COMPLETE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_DISPOSE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_ERROR;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_METRICS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_CHANGED;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_DATA;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_EVENT;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_RAILS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_REQUEST;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_SUBSCRIBE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_TERMINATE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_WATCHDOG;
+import static sk.teamsoft.rxlog.core.LogOutput.isLoggable;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Logs lifecycle events of a single transformer, filtered by its bitmask
+ * <p>
+ * One instance is shared by all subscriptions created through the same transformer, so it must
+ * not hold any per-subscription state. Event methods take the mask resolved by {@link #mask()},
+ * so that {@link LogSession} reads the configuration only once per event
+ * <p>
+ * Every event asks the sink whether it logs the priority of the line before building any of its
+ * arguments, so dropped lines neither allocate nor move the last thread of thread-hop logging
+ * <p>
+ * Entry point of the Rx adapters, which create one logger per transformer (or instrumented call
+ * site) and one session per subscription, and forward events of their operators to the session
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class EventLogger {
+
+    /** events, which log next items */
+    static final int NEXT_ANY = LOG_NEXT_DATA | LOG_NEXT_EVENT | LOG_NEXT_CHANGED;
+    /** events, which log next items with data */
+    static final int NEXT_WITH_DATA = LOG_NEXT_DATA | LOG_NEXT_CHANGED;
+
+    // message, subscription id suffix, event arguments, thread suffix
+    private static final LineFormat SUBSCRIBE = LineFormat.of("[subscribe] %s%s%s");
+    private static final LineFormat NEXT_DATA = LineFormat.of("[onNext] %s%s %s%s");
+    private static final LineFormat NEXT_EVENT = LineFormat.of("[onNext] %s%s%s");
+    private static final LineFormat NEXT_SUMMARY_DATA = LineFormat.of("[onNext] %s%s x%s in %sms, first=%s, last=%s");
+    private static final LineFormat NEXT_SUMMARY_EVENT = LineFormat.of("[onNext] %s%s x%s in %sms");
+    private static final LineFormat SUCCESS_DATA = LineFormat.of("[onSuccess] %s%s %s%s");
+    private static final LineFormat SUCCESS_EVENT = LineFormat.of("[onSuccess] %s%s%s");
+    private static final LineFormat ERROR_LINE = LineFormat.of("[onError] %s%s - %s%s%s");
+    private static final LineFormat COMPLETE = LineFormat.of("[onComplete] %s%s%s");
+    private static final LineFormat TERMINATE = LineFormat.of("[terminate] %s%s%s");
+    private static final LineFormat DISPOSE = LineFormat.of("[dispose] %s%s%s");
+    private static final LineFormat UNSUBSCRIBE = LineFormat.of("[unsubscribe] %s%s%s");
+    private static final LineFormat CANCEL = LineFormat.of("[cancel] %s%s%s");
+    private static final LineFormat REQUEST = LineFormat.of("[request] %s%s n=%s outstanding=%s delivered=%s%s");
+    private static final LineFormat STALL = LineFormat.of("[stall] %s%s no demand for %sms after %s items%s");
+    private static final LineFormat IDLE = LineFormat.of("[idle] %s%s no items for %sms after %s items");
+    private static final LineFormat RESUMED = LineFormat.of("[resumed] %s%s after %sms idle%s");
+    private static final LineFormat SLOW = LineFormat.of("[slow] %s%s onNext took %sms, budget %sms%s");
+
+    /** message of the transformer, tag of all its lines */
+    public final String msg;
+    final int bitMask;
+    final LogOptions options;
+    /** metrics of the tagged stream, null if {@link LogFlags#LOG_METRICS} is not set */
+    final StreamMetrics metrics;
+
+    // lines with the message bound, precomputed for every logger
+    private final LineFormat subscribeLine;
+    private final LineFormat nextDataLine;
+    private final LineFormat nextEventLine;
+    private final LineFormat nextSummaryDataLine;
+    private final LineFormat nextSummaryEventLine;
+    private final LineFormat successDataLine;
+    private final LineFormat successEventLine;
+    private final LineFormat errorLine;
+    private final LineFormat completeLine;
+    private final LineFormat terminateLine;
+    private final LineFormat disposeLine;
+    private final LineFormat unsubscribeLine;
+    private final LineFormat cancelLine;
+    private final LineFormat requestLine;
+    private final LineFormat stallLine;
+    private final LineFormat idleLine;
+    private final LineFormat resumedLine;
+    private final LineFormat slowLine;
+
+    private Resolved resolved;
+    /** id of {@link #msg} in the dictionary of current {@link EventJournal} */
+    private Interned interned;
+
+    public EventLogger(String msg, int bitMask, LogOptions options) {
+        this.msg = msg;
+        this.bitMask = bitMask;
+        this.options = options;
+        this.metrics = (bitMask & LOG_METRICS) != 0 ? RxLogMetrics.metrics(msg) : null;
+        this.subscribeLine = SUBSCRIBE.bind(msg);
+        this.nextDataLine = NEXT_DATA.bind(msg);
+        this.nextEventLine = NEXT_EVENT.bind(msg);
+        this.nextSummaryDataLine = NEXT_SUMMARY_DATA.bind(msg);
+        this.nextSummaryEventLine = NEXT_SUMMARY_EVENT.bind(msg);
+        this.successDataLine = SUCCESS_DATA.bind(msg);
+        this.successEventLine = SUCCESS_EVENT.bind(msg);
+        this.errorLine = ERROR_LINE.bind(msg);
+        this.completeLine = COMPLETE.bind(msg);
+        this.terminateLine = TERMINATE.bind(msg);
+        this.disposeLine = DISPOSE.bind(msg);
+        this.unsubscribeLine = UNSUBSCRIBE.bind(msg);
+        this.cancelLine = CANCEL.bind(msg);
+        this.requestLine = REQUEST.bind(msg);
+        this.stallLine = STALL.bind(msg);
+        this.idleLine = IDLE.bind(msg);
+        this.resumedLine = RESUMED.bind(msg);
+        this.slowLine = SLOW.bind(msg);
+    }
+
+    /**
+     * @return events of this logger, which are enabled by current {@link RxLogConfig}
+     */
+    public int mask() {
+        RxLogConfig.State state = RxLogConfig.state;
+        Resolved r = resolved;
+        if (r == null || r.state != state) {
+            // benign race, Resolved is immutable and recomputed only on config change
+            r = new Resolved(state, bitMask & state.maskFor(msg));
+            resolved = r;
+        }
+        return r.mask;
+    }
+
+    /**
+     * @return false if no event of this logger is enabled, so the operator need not be installed
+     */
+    public boolean isActive() {
+        return mask() != 0;
+    }
+
+    public LogSession newSession() {
+        return new LogSession(this, -1, null);
+    }
+
+    /**
+     * Creates sessions of all rails of one ParallelFlowable subscription, which share rail
+     * accounting when {@link LogFlags#LOG_RAILS} is enabled
+     * @param n number of rails
+     * @return session of every rail, indexed by rail
+     */
+    public LogSession[] newRailSessions(int n) {
+        Rails rails = (mask() & LOG_RAILS) != 0 ? RxLogParallel.start(msg, n) : null;
+        LogSession[] sessions = new LogSession[n];
+        for (int i = 0; i < n; i++) {
+            sessions[i] = new LogSession(this, i, rails);
+        }
+        return sessions;
+    }
+
+    void subscribe(int mask, LogSession s) {
+        if ((mask & LOG_SUBSCRIBE) != 0 && !journal(JournalWriter.SUBSCRIBE, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, subscribeLine, s.idSuffix, s.thread());
+        }
+    }
+
+    void next(int mask, LogSession s, Object data) {
+        if ((mask & NEXT_ANY) != 0 && journal(JournalWriter.NEXT, (mask & NEXT_WITH_DATA) != 0 ? data : null)
+                || !isLoggable(DEBUG)) {
+            return;
+        }
+        if ((mask & NEXT_WITH_DATA) != 0) {
+            print(DEBUG, nextDataLine, s.idSuffix, payload(data), s.thread());
+        } else if ((mask & LOG_NEXT_EVENT) != 0) {
+            print(DEBUG, nextEventLine, s.idSuffix, s.thread());
+        }
+    }
+
+    /**
+     * Summary of coalesced next events, without thread as it may be printed by the timer
+     */
+    void nextSummary(int mask, LogSession s, int count, long nanos, Object first, Object last) {
+        if (!isLoggable(DEBUG)) {
+            return;
+        }
+        if ((mask & NEXT_WITH_DATA) != 0) {
+            print(DEBUG, nextSummaryDataLine, s.idSuffix, count, TimeUnit.NANOSECONDS.toMillis(nanos), payload(first), payload(last));
+        } else if ((mask & LOG_NEXT_EVENT) != 0) {
+            print(DEBUG, nextSummaryEventLine, s.idSuffix, count, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+    }
+
+    void success(int mask, LogSession s, Object data) {
+        if ((mask & NEXT_ANY) != 0 && journal(JournalWriter.SUCCESS, (mask & NEXT_WITH_DATA) != 0 ? data : null)
+                || !isLoggable(DEBUG)) {
+            return;
+        }
+        if ((mask & NEXT_WITH_DATA) != 0) {
+            print(DEBUG, successDataLine, s.idSuffix, payload(data), s.thread());
+        } else if ((mask & LOG_NEXT_EVENT) != 0) {
+            print(DEBUG, successEventLine, s.idSuffix, s.thread());
+        }
+    }
+
+    void error(int mask, LogSession s, Throwable e) {
+        if ((mask & LOG_ERROR) != 0 && !journalError(e) && isLoggable(ERROR)) {
+            Object trace = ErrorDedup.trace(msg, e);
+            if (trace != null) {
+                print(ERROR, errorLine, s.idSuffix, message(e), s.hop(), trace);
+            }
+        }
+    }
+
+    void complete(int mask, LogSession s) {
+        if ((mask & LOG_COMPLETE) != 0 && !journal(JournalWriter.COMPLETE, 0) && isLoggable(INFO)) {
+            print(INFO, completeLine, s.idSuffix, s.hop());
+        }
+    }
+
+    /**
+     * Variant of {@link #complete(int, LogSession)} used by Maybe and Completable, which also log the thread
+     */
+    void completeOnThread(int mask, LogSession s) {
+        if ((mask & LOG_COMPLETE) != 0 && !journal(JournalWriter.COMPLETE, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, completeLine, s.idSuffix, s.thread());
+        }
+    }
+
+    void terminate(int mask, LogSession s) {
+        if ((mask & LOG_TERMINATE) != 0 && !journal(JournalWriter.TERMINATE, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, terminateLine, s.idSuffix, s.hop());
+        }
+    }
+
+    void dispose(int mask, LogSession s) {
+        if ((mask & LOG_DISPOSE) != 0 && !journal(JournalWriter.DISPOSE, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, disposeLine, s.idSuffix, s.hop());
+        }
+    }
+
+    /**
+     * RxJava1 unsubscribe, logged under {@link LogFlags#LOG_DISPOSE}
+     */
+    void unsubscribe(int mask, LogSession s) {
+        if ((mask & LOG_DISPOSE) != 0 && !journal(JournalWriter.DISPOSE, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, unsubscribeLine, s.idSuffix, s.hop());
+        }
+    }
+
+    void cancel(int mask, LogSession s) {
+        if ((mask & LOG_CANCEL) != 0 && !journal(JournalWriter.CANCEL, 0) && isLoggable(VERBOSE)) {
+            print(VERBOSE, cancelLine, s.idSuffix, s.hop());
+        }
+    }
+
+    void request(int mask, LogSession s, long n, DemandTracker demand) {
+        if ((mask & LOG_REQUEST) != 0 && !journal(JournalWriter.REQUEST, n) && isLoggable(VERBOSE)) {
+            print(VERBOSE, requestLine, s.idSuffix, n, demand.outstanding(), demand.delivered(), s.hop());
+        }
+    }
+
+    void stall(int mask, LogSession s, long nanos, DemandTracker demand) {
+        if ((mask & LOG_REQUEST) != 0 && !journal(JournalWriter.STALL, nanos) && isLoggable(INFO)) {
+            print(INFO, stallLine, s.idSuffix, TimeUnit.NANOSECONDS.toMillis(nanos), demand.delivered(), s.hop());
+        }
+    }
+
+    /**
+     * Called by the timer thread, so the line has no thread
+     */
+    void idle(int mask, LogSession s, long nanos, long items) {
+        if ((mask & LOG_WATCHDOG) != 0 && !journal(JournalWriter.IDLE, nanos) && isLoggable(WARN)) {
+            print(WARN, idleLine, s.idSuffix, TimeUnit.NANOSECONDS.toMillis(nanos), items);
+        }
+    }
+
+    void resumed(int mask, LogSession s, long nanos) {
+        if ((mask & LOG_WATCHDOG) != 0 && !journal(JournalWriter.RESUMED, nanos) && isLoggable(WARN)) {
+            print(WARN, resumedLine, s.idSuffix, TimeUnit.NANOSECONDS.toMillis(nanos), s.hop());
+        }
+    }
+
+    void slow(int mask, LogSession s, long nanos) {
+        if ((mask & LOG_WATCHDOG) != 0 && !journal(JournalWriter.SLOW, nanos) && isLoggable(WARN)) {
+            print(WARN, slowLine, s.idSuffix, TimeUnit.NANOSECONDS.toMillis(nanos),
+                    TimeUnit.NANOSECONDS.toMillis(options.nextBudgetNanos), s.thread());
+        }
+    }
+
+    private Object payload(Object data) {
+        return new Payload(options.renderer, data);
+    }
+
+    /**
+     * Writes the event into {@link EventJournal} if it is open
+     * @return false if the journal is closed and the event has to be logged as text
+     */
+    private boolean journal(int type, long payload) {
+        JournalWriter w = EventJournal.writer;
+        if (w == null) {
+            return false;
+        }
+        w.write(streamId(w), type, payload);
+        return true;
+    }
+
+    private boolean journal(int type, Object item) {
+        JournalWriter w = EventJournal.writer;
+        if (w == null) {
+            return false;
+        }
+        w.write(streamId(w), type, item);
+        return true;
+    }
+
+    private boolean journalError(Throwable e) {
+        JournalWriter w = EventJournal.writer;
+        if (w == null) {
+            return false;
+        }
+        w.write(streamId(w), JournalWriter.ERROR, w.intern(e.getClass().getName()));
+        return true;
+    }
+
+    private int streamId(JournalWriter w) {
+        Interned i = interned;
+        if (i == null || i.generation != w.generation()) {
+            // benign race like with Resolved, interning is idempotent
+            i = new Interned(w.generation(), w.intern(msg));
+            interned = i;
+        }
+        return i.id;
+    }
+
+    private static final class Resolved {
+
+        final RxLogConfig.State state;
+        final int mask;
+
+        Resolved(RxLogConfig.State state, int mask) {
+            this.state = state;
+            this.mask = mask;
+        }
+    }
+
+    private static final class Interned {
+
+        /** generation of the writer, the writer itself is not kept after it is closed */
+        final int generation;
+        final int id;
+
+        Interned(int generation, int id) {
+            this.generation = generation;
+            this.id = id;
+        }
+    }
+
+    static String message(Throwable e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,149 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static sk.teamsoft.rxlog.core.LogEvent.ERROR;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Ring of the last raw events of one subscription with {@link LogFlags#LOG_FLIGHT}
+ * <p>
+ * Records are kept in arrays preallocated on subscribe and overwritten in a ring, nothing is
+ * formatted until the ring is dumped. Request and dispose can come from other threads than items,
+ * so writers claim slots by incrementing the event counter and publish them by a lazy write of the
+ * slot sequence, the same way as {@link RingBuffer}. No lock is taken and nothing is allocated
+ * per event, except a weak reference to items, which could keep other objects alive. Strings,
+ * boxed primitives and enums are held directly
+ * <p>
+ * Dump skips slots, which are not published yet or were overwritten meanwhile. A slot overwritten
+ * while it is being read may rarely show fields of the newer event
+ * @author Dusan Bartos
+ */
+final class FlightRecorder {
+
+    private static final LineFormat HEADER = LineFormat.of("[flight] %s%s last %s of %s events");
+    // message, subscription id suffix, offset from dump, event name, event argument, thread suffix
+    private static final LineFormat RECORD = LineFormat.of("[flight] %s%s %sms %s%s%s");
+
+    private static final Object COLLECTED = " <collected>";
+
+    final String msg;
+    final String idSuffix;
+    private final PayloadRenderer renderer;
+
+    private final long[] times;
+    private final byte[] types;
+    private final String[] threads;
+    /** item, weak reference to the item, error message, or null */
+    private final Object[] args;
+    private final long[] values;
+    /** event number + 1 of the event in the slot, written after the other fields */
+    private final AtomicLongArray sequences;
+    /** number of recorded events, the ring holds the last {@code min(count, capacity)} of them */
+    private final AtomicLong count = new AtomicLong();
+
+    /** entry in {@link RxLogFlightRecorder}, set while the subscription is active */
+    Reference<FlightRecorder> entry;
+
+    FlightRecorder(String msg, String idSuffix, LogOptions options) {
+        int capacity = options.flightEvents;
+        this.msg = msg;
+        this.idSuffix = idSuffix;
+        this.renderer = options.renderer;
+        this.times = new long[capacity];
+        this.types = new byte[capacity];
+        this.threads = new String[capacity];
+        this.args = new Object[capacity];
+        this.values = new long[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Records event without argument
+     * @param type event type, one of {@link JournalWriter} event constants
+     */
+    void record(int type) {
+        record(type, null, 0);
+    }
+
+    /**
+     * Records next or success event, the item is held weakly, unless it is a plain value
+     */
+    void recordItem(int type, Object item) {
+        record(type, item == null || isValue(item) ? item : new WeakReference<>(item), 0);
+    }
+
+    void recordError(Throwable e) {
+        record(JournalWriter.ERROR, EventLogger.message(e), 0);
+    }
+
+    void recordRequest(long n) {
+        record(JournalWriter.REQUEST, null, n);
+    }
+
+    private void record(int type, Object arg, long value) {
+        long n = count.getAndIncrement();
+        int i = (int) (n % times.length);
+        times[i] = System.nanoTime();
+        types[i] = (byte) type;
+        threads[i] = LineFormat.threadName();
+        args[i] = arg;
+        values[i] = value;
+        sequences.lazySet(i, n + 1);
+    }
+
+    /**
+     * @return true for objects, which reference no other objects, so holding them costs only their size
+     */
+    private static boolean isValue(Object item) {
+        return item instanceof String || item instanceof Number && item.getClass().getName().startsWith("java.lang.")
+                || item instanceof Boolean || item instanceof Character || item instanceof Enum;
+    }
+
+    /**
+     * Logs recorded events, the oldest first, with time relative to this call
+     */
+    void dump() {
+        int capacity = times.length;
+        long total = count.get();
+        int size = (int) Math.min(total, capacity);
+        long now = System.nanoTime();
+        print(ERROR, HEADER, msg, idSuffix, size, total);
+        LineFormat line = RECORD.bind(msg);
+        for (long n = total - size; n < total; n++) {
+            int i = (int) (n % capacity);
+            if (sequences.get(i) != n + 1) {
+                continue;
+            }
+            long time = times[i];
+            byte type = types[i];
+            String thread = threads[i];
+            Object arg = args[i];
+            long value = values[i];
+            if (sequences.get(i) != n + 1 || count.get() > n + capacity) {
+                continue;
+            }
+            print(ERROR, line, idSuffix, -TimeUnit.NANOSECONDS.toMillis(now - time),
+                    JournalDecoder.EVENTS[type], argument(type, arg, value), " [Thread:" + thread + "]");
+        }
+    }
+
+    private Object argument(int type, Object arg, long value) {
+        switch (type) {
+            case JournalWriter.REQUEST:
+                return " n=" + value;
+            case JournalWriter.ERROR:
+                return " - " + arg;
+            default:
+                if (arg == null) {
+                    return "";
+                }
+                Object item = arg instanceof WeakReference ? ((WeakReference<?>) arg).get() : arg;
+                return item != null ? " " + new Payload(renderer, item) : COLLECTED;
+        }
+    }
+}
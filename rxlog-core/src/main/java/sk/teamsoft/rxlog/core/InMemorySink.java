@@ -0,0 +1,92 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last events in memory, useful in tests and for in-app log screens
+ * <p>
+ * The lock is taken once per batch
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class InMemorySink implements LogSink {
+
+    private final int capacity;
+    private final ArrayDeque<LogEvent> events;
+    private long evicted;
+
+    /**
+     * @param capacity max number of kept events, the oldest are evicted first
+     */
+    public InMemorySink(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    @Override public boolean isLoggable(int priority) {
+        return true;
+    }
+
+    @Override public void write(List<LogEvent> batch) {
+        synchronized (events) {
+            for (int i = 0, size = batch.size(); i < size; i++) {
+                if (events.size() == capacity) {
+                    events.pollFirst();
+                    evicted++;
+                }
+                events.addLast(batch.get(i));
+            }
+        }
+    }
+
+    /**
+     * @return copy of kept events, oldest first
+     */
+    public List<LogEvent> events() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    /**
+     * @return kept events with at least given priority, oldest first
+     */
+    public List<LogEvent> events(int minPriority) {
+        List<LogEvent> result = new ArrayList<>();
+        synchronized (events) {
+            for (LogEvent event : events) {
+                if (event.priority >= minPriority) {
+                    result.add(event);
+                }
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+
+    /**
+     * @return number of events evicted because of capacity
+     */
+    public long evictedCount() {
+        synchronized (events) {
+            return evicted;
+        }
+    }
+
+    public void clear() {
+        synchronized (events) {
+            events.clear();
+            evicted = 0;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Key of emitted items, by which change-only logging (LOG_NEXT_CHANGED) tells changed items
+ * from duplicates. Items with equal keys are duplicates
+ * <p>
+ * The key of the last logged item is kept until the next change, so keys should be small and
+ * cheap to compare, e.g. an id or a version of the item
+ * @author Dusan Bartos
+ */
+public interface ItemKey {
+
+    /**
+     * Compares items themselves by {@link Object#equals(Object)}, the default key
+     * <p>
+     * The last logged item is kept alive until the next change. A mutated instance emitted again
+     * is equal to itself, so streams re-emitting mutable instances need a key such as a version
+     */
+    ItemKey EQUALS = item -> item;
+
+    /**
+     * Compares items by value of their {@link Object#hashCode()}, taken when the item is emitted.
+     * Keeps only the hash and detects changes of a re-emitted mutable instance, but costs a full
+     * hash of every item, and two different items with colliding hashes are taken for duplicates
+     */
+    ItemKey HASH_CODE = item -> item != null ? item.hashCode() : null;
+
+    /**
+     * @param item emitted item, may be null
+     * @return key of the item, may be null
+     */
+    Object keyOf(Object item);
+}
@@ -0,0 +1,215 @@
+package sk.teamsoft.rxlog.core;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads journals written by {@link EventJournal}
+ * <p>
+ * Can be used as a library, or from command line:
+ * <pre>
+ * java -cp rxlog-core.jar sk.teamsoft.rxlog.core.JournalDecoder rx.journal [rx.journal.dict]
+ * </pre>
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JournalDecoder {
+
+    /** event names indexed by {@link JournalWriter} event type */
+    static final String[] EVENTS = {
+            "?", "subscribe", "onNext", "onSuccess", "onError", "onComplete", "terminate", "dispose", "cancel", "request", "stall", "idle", "resumed", "slow"
+    };
+
+    private JournalDecoder() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: JournalDecoder <journal> [dictionary]");
+            System.exit(2);
+            return;
+        }
+        File journal = new File(args[0]);
+        File dictionary = args.length > 1 ? new File(args[1]) : EventJournal.dictionaryOf(journal);
+        PrintStream out = System.out;
+        for (Entry entry : read(journal, dictionary)) {
+            out.println(entry);
+        }
+    }
+
+    /**
+     * @param journal journal file, its dictionary is expected next to it
+     * @return entries in the order they were written
+     * @throws IOException if the journal cannot be read or is not a journal
+     */
+    public static List<Entry> read(File journal) throws IOException {
+        return read(journal, EventJournal.dictionaryOf(journal));
+    }
+
+    /**
+     * @param journal    journal file
+     * @param dictionary dictionary file
+     * @return entries in the order they were written
+     * @throws IOException if the journal cannot be read or is not a journal
+     */
+    public static List<Entry> read(File journal, File dictionary) throws IOException {
+        Map<Integer, String> strings = readDictionary(dictionary);
+        ByteBuffer b = map(journal);
+        if (b.remaining() < JournalWriter.HEADER_SIZE || b.getInt(0) != JournalWriter.MAGIC) {
+            throw new IOException("not an RxLog journal: " + journal);
+        }
+        if (b.getInt(4) != JournalWriter.VERSION) {
+            throw new IOException("unsupported journal version: " + b.getInt(4));
+        }
+        int recordSize = b.getInt(8);
+        int slots = b.getInt(12);
+        long baseMillis = b.getLong(16);
+        long baseNanos = b.getLong(24);
+        if (b.remaining() < JournalWriter.HEADER_SIZE + (long) slots * recordSize) {
+            throw new IOException("truncated journal: " + journal);
+        }
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            int offset = JournalWriter.HEADER_SIZE + i * recordSize;
+            long seq = b.getLong(offset);
+            if (seq == 0) {
+                continue;
+            }
+            long nanos = b.getLong(offset + 8) - baseNanos;
+            int type = b.getInt(offset + JournalWriter.OFFSET_TYPE);
+            long timeMillis = baseMillis + TimeUnit.NANOSECONDS.toMillis(nanos);
+            entries.add(new Entry(seq - 1,
+                    timeMillis,
+                    timeFormat.format(new Date(timeMillis)),
+                    nanos,
+                    lookup(strings, b.getInt(offset + JournalWriter.OFFSET_STREAM)),
+                    lookup(strings, b.getInt(offset + JournalWriter.OFFSET_THREAD)),
+                    type & JournalWriter.TYPE_MASK,
+                    (type & JournalWriter.FLAG_LENGTH) != 0,
+                    b.getLong(offset + JournalWriter.OFFSET_PAYLOAD),
+                    strings));
+        }
+        Collections.sort(entries, new Comparator<Entry>() {
+            @Override public int compare(Entry a, Entry b) {
+                return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+            }
+        });
+        return entries;
+    }
+
+    private static ByteBuffer map(File journal) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(journal, "r");
+        try {
+            return file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+    }
+
+    private static Map<Integer, String> readDictionary(File dictionary) throws IOException {
+        Map<Integer, String> strings = new HashMap<>();
+        if (!dictionary.exists()) {
+            return strings;
+        }
+        DataInputStream in = new DataInputStream(new FileInputStream(dictionary));
+        try {
+            for (; ; ) {
+                int id = in.readInt();
+                strings.put(id, in.readUTF());
+            }
+        } catch (EOFException e) {
+            // end of dictionary, possibly with a torn last entry
+        } finally {
+            in.close();
+        }
+        return strings;
+    }
+
+    private static String lookup(Map<Integer, String> strings, int id) {
+        String value = strings.get(id);
+        return value != null ? value : "#" + id;
+    }
+
+    /**
+     * Single decoded journal record
+     */
+    public static final class Entry {
+
+        public final long sequence;
+        /** wall clock time of the event */
+        public final long timeMillis;
+        /** nanoseconds since the journal was opened */
+        public final long nanos;
+        public final String stream;
+        public final String thread;
+        public final String event;
+        /** true if {@link #payload} holds length or size of the item, otherwise it is its identity hash */
+        public final boolean payloadIsLength;
+        /**
+         * item identity hash or length for next/success, requested amount for request, duration in nanos
+         * for stall/idle/resumed/slow, dictionary id of error class for error
+         */
+        public final long payload;
+
+        private final String time;
+        private final String detail;
+
+        Entry(long sequence, long timeMillis, String time, long nanos, String stream, String thread, int type, boolean payloadIsLength, long payload, Map<Integer, String> strings) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.time = time;
+            this.nanos = nanos;
+            this.stream = stream;
+            this.thread = thread;
+            this.event = type < EVENTS.length ? EVENTS[type] : "?" + type;
+            this.payloadIsLength = payloadIsLength;
+            this.payload = payload;
+            this.detail = detail(type, payloadIsLength, payload, strings);
+        }
+
+        private static String detail(int type, boolean payloadIsLength, long payload, Map<Integer, String> strings) {
+            switch (type) {
+                case JournalWriter.NEXT:
+                case JournalWriter.SUCCESS:
+                    return payloadIsLength ? " size=" + payload : (payload != 0 ? " identity=" + Integer.toHexString((int) payload) : "");
+                case JournalWriter.ERROR:
+                    return " - " + lookup(strings, (int) payload);
+                case JournalWriter.REQUEST:
+                    return " n=" + payload;
+                case JournalWriter.STALL:
+                    return " no demand for " + TimeUnit.NANOSECONDS.toMillis(payload) + "ms";
+                case JournalWriter.IDLE:
+                    return " no items for " + TimeUnit.NANOSECONDS.toMillis(payload) + "ms";
+                case JournalWriter.RESUMED:
+                    return " after " + TimeUnit.NANOSECONDS.toMillis(payload) + "ms";
+                case JournalWriter.SLOW:
+                    return " onNext took " + TimeUnit.NANOSECONDS.toMillis(payload) + "ms";
+                default:
+                    return "";
+            }
+        }
+
+        @Override public String toString() {
+            return time + " [" + event + "] " + stream + detail + " [Thread:" + thread + "]";
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package sk.teamsoft.rxlog.core;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writer of the binary event journal, see {@link EventJournal}
+ * <p>
+ * The journal file consists of a header and a ring of fixed-size records:
+ * <pre>
+ * header: int magic, int version, int recordSize, int slots, long baseWallMillis, long baseNanos
+ * record: long sequence+1, long nanoTime, long payload, int streamId, int threadId, int type, int reserved
+ * </pre>
+ * Strings (stream tags, thread names, error classes) are written once into the side dictionary
+ * file as {@code int id, UTF string} entries and records only refer to their ids. Sequence is
+ * written as the last field of a record, zero marks an empty slot
+ * <p>
+ * Items are never traversed on the emitting thread, the payload of next/success is the size of
+ * strings, collections, maps and arrays, and the identity hash of other items
+ * @author Dusan Bartos
+ */
+final class JournalWriter {
+
+    static final int MAGIC = 0x524c4a31; // "RLJ1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 40;
+
+    static final int OFFSET_PAYLOAD = 16;
+    static final int OFFSET_STREAM = 24;
+    static final int OFFSET_THREAD = 28;
+    static final int OFFSET_TYPE = 32;
+
+    static final int SUBSCRIBE = 1;
+    static final int NEXT = 2;
+    static final int SUCCESS = 3;
+    static final int ERROR = 4;
+    static final int COMPLETE = 5;
+    static final int TERMINATE = 6;
+    static final int DISPOSE = 7;
+    static final int CANCEL = 8;
+    static final int REQUEST = 9;
+    static final int STALL = 10;
+    static final int IDLE = 11;
+    static final int RESUMED = 12;
+    static final int SLOW = 13;
+
+    /** type flag, payload holds length or size of the item instead of its identity hash */
+    static final int FLAG_LENGTH = 0x100;
+    static final int TYPE_MASK = 0xff;
+
+    private static final ThreadLocal<ThreadId> threadIds = new ThreadLocal<ThreadId>() {
+        @Override protected ThreadId initialValue() {
+            return new ThreadId();
+        }
+    };
+
+    /** source of {@link #generation}, so that threads need not reference closed writers */
+    private static final AtomicInteger generations = new AtomicInteger();
+
+    private final int generation = generations.incrementAndGet();
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final DataOutputStream dictionary;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private int nextId;
+
+    JournalWriter(File journal, File dictionaryFile, long maxBytes) throws IOException {
+        long slotCount = (maxBytes - HEADER_SIZE) / RECORD_SIZE;
+        if (slotCount < 1 || slotCount > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("maxBytes out of range: " + maxBytes);
+        }
+        this.slots = (int) slotCount;
+        int size = HEADER_SIZE + slots * RECORD_SIZE;
+        this.file = new RandomAccessFile(journal, "rw");
+        try {
+            file.setLength(0);
+            file.setLength(size);
+            this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            this.dictionary = new DataOutputStream(new FileOutputStream(dictionaryFile));
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, slots);
+        buffer.putLong(16, System.currentTimeMillis());
+        buffer.putLong(24, System.nanoTime());
+    }
+
+    /**
+     * Writes one record, overwriting the oldest one when the ring is full
+     * <p>
+     * Absolute puts don't touch buffer's position, so concurrent writers of distinct slots need
+     * no locking
+     */
+    void write(int streamId, int type, long payload) {
+        long seq = sequence.getAndIncrement();
+        int offset = HEADER_SIZE + (int) (seq % slots) * RECORD_SIZE;
+        MappedByteBuffer b = buffer;
+        b.putLong(offset, 0);
+        b.putLong(offset + 8, System.nanoTime());
+        b.putLong(offset + OFFSET_PAYLOAD, payload);
+        b.putInt(offset + OFFSET_STREAM, streamId);
+        b.putInt(offset + OFFSET_THREAD, threadId());
+        b.putInt(offset + OFFSET_TYPE, type);
+        b.putLong(offset, seq + 1);
+    }
+
+    void write(int streamId, int type, Object item) {
+        if (item instanceof CharSequence) {
+            write(streamId, type | FLAG_LENGTH, ((CharSequence) item).length());
+        } else if (item instanceof Collection) {
+            write(streamId, type | FLAG_LENGTH, ((Collection) item).size());
+        } else if (item instanceof Map) {
+            write(streamId, type | FLAG_LENGTH, ((Map) item).size());
+        } else if (item != null && item.getClass().isArray()) {
+            write(streamId, type | FLAG_LENGTH, java.lang.reflect.Array.getLength(item));
+        } else {
+            write(streamId, type, item != null ? System.identityHashCode(item) : 0);
+        }
+    }
+
+    /**
+     * @return dictionary id of given string, the string is written to the dictionary only once
+     */
+    int intern(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : register(value);
+    }
+
+    /**
+     * @return id of this writer, unique within the process
+     */
+    int generation() {
+        return generation;
+    }
+
+    long written() {
+        return sequence.get();
+    }
+
+    void close() throws IOException {
+        try {
+            buffer.force();
+        } finally {
+            synchronized (this) {
+                dictionary.close();
+            }
+            file.close();
+        }
+    }
+
+    private synchronized int register(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = ++nextId;
+        try {
+            dictionary.writeInt(newId);
+            dictionary.writeUTF(value);
+            dictionary.flush();
+        } catch (IOException e) {
+            // record still refers to the id, decoder shows it as unknown
+        }
+        ids.put(value, newId);
+        return newId;
+    }
+
+    private int threadId() {
+        ThreadId t = threadIds.get();
+        if (t.generation != generation) {
+            t.id = intern(Thread.currentThread().getName());
+            t.generation = generation;
+        }
+        return t.id;
+    }
+
+    /**
+     * Interned name of a thread, valid for the writer of one generation
+     */
+    private static final class ThreadId {
+
+        int generation;
+        int id;
+    }
+}
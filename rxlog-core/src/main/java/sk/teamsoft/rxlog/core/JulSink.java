@@ -0,0 +1,65 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes events to java.util.logging, default sink when no platform adapter installs its own
+ * <p>
+ * Priorities are mapped as VERBOSE - FINEST, DEBUG - FINE, INFO - INFO, WARN - WARNING,
+ * ERROR - SEVERE. Records keep time of the event and name of the emitting thread is passed as
+ * their source class
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class JulSink implements LogSink {
+
+    public static final String DEFAULT_LOGGER = "RxLog";
+
+    private final Logger logger;
+
+    public JulSink() {
+        this(Logger.getLogger(DEFAULT_LOGGER));
+    }
+
+    public JulSink(Logger logger) {
+        if (logger == null) {
+            throw new NullPointerException("logger == null");
+        }
+        this.logger = logger;
+    }
+
+    @Override public boolean isLoggable(int priority) {
+        return logger.isLoggable(levelOf(priority));
+    }
+
+    @Override public void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            Level level = levelOf(event.priority);
+            if (logger.isLoggable(level)) {
+                java.util.logging.LogRecord record = new java.util.logging.LogRecord(level, event.message());
+                record.setMillis(event.timeMillis);
+                record.setLoggerName(logger.getName());
+                record.setSourceClassName(event.thread);
+                logger.log(record);
+            }
+        }
+    }
+
+    static Level levelOf(int priority) {
+        switch (priority) {
+            case LogEvent.ERROR:
+                return Level.SEVERE;
+            case LogEvent.WARN:
+                return Level.WARNING;
+            case LogEvent.INFO:
+                return Level.INFO;
+            case LogEvent.DEBUG:
+                return Level.FINE;
+            default:
+                return Level.FINEST;
+        }
+    }
+}
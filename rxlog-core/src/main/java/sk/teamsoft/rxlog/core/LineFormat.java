@@ -0,0 +1,177 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled log line with {@code %s} placeholders
+ * <p>
+ * Constant segments are split once, and leading arguments known at assembly time (stream
+ * message) can be bound into them via {@link #bind(Object)}. Lines are built in a reusable
+ * per-thread builder, so formatting allocates only the resulting string
+ * <p>
+ * Patterns starting with the event name in brackets (e.g. {@code "[onNext] %s..."}) carry the
+ * name, and the value bound first is kept as the tag, both are passed to {@link LogEvent}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LineFormat {
+
+    /** builders which grew above this size are not kept for reuse */
+    private static final int MAX_KEPT_CAPACITY = 4096;
+
+    private static final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>() {
+        @Override protected ThreadState initialValue() {
+            return new ThreadState();
+        }
+    };
+
+    /** constant text around placeholders, its length is argCount + 1 */
+    private final String[] segments;
+    /** event name of the pattern, null if it does not start with one */
+    private final String event;
+    /** value bound first, null if nothing was bound */
+    private final String tag;
+
+    private LineFormat(String[] segments, String event, String tag) {
+        this.segments = segments;
+        this.event = event;
+        this.tag = tag;
+    }
+
+    /**
+     * @param pattern line pattern, only {@code %s} placeholders are supported
+     * @return compiled format
+     */
+    public static LineFormat of(String pattern) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = pattern.indexOf("%s", start)) >= 0) {
+            segments.add(pattern.substring(start, index));
+            start = index + 2;
+        }
+        segments.add(pattern.substring(start));
+        int end = pattern.startsWith("[") ? pattern.indexOf(']') : -1;
+        String event = end > 1 ? pattern.substring(1, end) : null;
+        return new LineFormat(segments.toArray(new String[segments.size()]), event, null);
+    }
+
+    /**
+     * @param arg0 value of the first placeholder
+     * @return format with the first placeholder replaced by given value
+     */
+    public LineFormat bind(Object arg0) {
+        if (segments.length < 2) {
+            throw new IllegalStateException("no placeholder left");
+        }
+        String[] bound = new String[segments.length - 1];
+        bound[0] = segments[0] + arg0 + segments[1];
+        System.arraycopy(segments, 2, bound, 1, segments.length - 2);
+        return new LineFormat(bound, event, tag != null ? tag : String.valueOf(arg0));
+    }
+
+    public int argCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * @return event name of the pattern without brackets, null if the pattern does not start with one
+     */
+    public String event() {
+        return event;
+    }
+
+    /**
+     * @return value bound first by {@link #bind(Object)}, null if nothing was bound
+     */
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Formats the line, missing arguments are rendered as null
+     */
+    public String format(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        String[] s = segments;
+        if (s.length == 1) {
+            return s[0];
+        }
+        ThreadState state = threadState.get();
+        StringBuilder sb = state.builder;
+        sb.setLength(0);
+        sb.append(s[0]);
+        for (int i = 1; i < s.length; i++) {
+            switch (i) {
+                case 1:
+                    sb.append(arg0);
+                    break;
+                case 2:
+                    sb.append(arg1);
+                    break;
+                case 3:
+                    sb.append(arg2);
+                    break;
+                case 4:
+                    sb.append(arg3);
+                    break;
+                default:
+                    sb.append(arg4);
+                    break;
+            }
+            sb.append(s[i]);
+        }
+        String line = sb.toString();
+        if (sb.capacity() > MAX_KEPT_CAPACITY) {
+            state.builder = new StringBuilder(ThreadState.INITIAL_CAPACITY);
+        }
+        return line;
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            sb.append("%s").append(segments[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return " [Thread:name]" of current thread, cached on its first logged event (later
+     * renames are not reflected), avoids copying the name on every event
+     */
+    public static String threadSuffix() {
+        ThreadState state = threadState.get();
+        String suffix = state.threadSuffix;
+        if (suffix == null) {
+            suffix = " [Thread:" + threadName(state) + "]";
+            state.threadSuffix = suffix;
+        }
+        return suffix;
+    }
+
+    /**
+     * @return name of current thread, cached the same way as {@link #threadSuffix()}
+     */
+    public static String threadName() {
+        return threadName(threadState.get());
+    }
+
+    private static String threadName(ThreadState state) {
+        String name = state.threadName;
+        if (name == null) {
+            name = Thread.currentThread().getName();
+            state.threadName = name;
+        }
+        return name;
+    }
+
+    private static final class ThreadState {
+
+        static final int INITIAL_CAPACITY = 256;
+
+        StringBuilder builder = new StringBuilder(INITIAL_CAPACITY);
+        String threadName;
+        String threadSuffix;
+    }
+}
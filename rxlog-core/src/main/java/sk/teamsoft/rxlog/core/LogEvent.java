@@ -0,0 +1,123 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Immutable log event, as delivered to {@link LogSink}
+ * <p>
+ * Events of streams carry their name ({@link #event}, e.g. "onNext"), message of the transformer
+ * ({@link #tag}) and the remaining line arguments separately, so sinks can route or filter them
+ * without parsing the text. The text line is formatted by {@link #message()} only when a sink
+ * asks for it. Payloads are rendered when the event is created, so later changes of logged items
+ * are not reflected
+ * <p>
+ * Priorities are the same as android.util.Log priorities (VERBOSE = 2 ... ERROR = 6)
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogEvent {
+
+    public static final int VERBOSE = 2;
+    public static final int DEBUG = 3;
+    public static final int INFO = 4;
+    public static final int WARN = 5;
+    public static final int ERROR = 6;
+
+    public final int priority;
+    /** wall clock time of the event, taken on the emitting thread */
+    public final long timeMillis;
+    /** name of the emitting thread */
+    public final String thread;
+    /** name of the event without brackets (e.g. "onNext"), null if the line has no event name */
+    public final String event;
+    /** message of the transformer, which logged the event, null if the line is not bound to one */
+    public final String tag;
+
+    /** line of the event, null if the event was created from a preformatted message */
+    private final LineFormat format;
+    private final Object arg0;
+    private final Object arg1;
+    private final Object arg2;
+    private final Object arg3;
+    private final Object arg4;
+    /** formatted line, cached on the first call of {@link #message()} */
+    private String message;
+
+    /**
+     * Creates event from a preformatted line, without event name and tag
+     */
+    public LogEvent(int priority, long timeMillis, String thread, String message) {
+        this.priority = priority;
+        this.timeMillis = timeMillis;
+        this.thread = thread;
+        this.event = null;
+        this.tag = null;
+        this.format = null;
+        this.arg0 = null;
+        this.arg1 = null;
+        this.arg2 = null;
+        this.arg3 = null;
+        this.arg4 = null;
+        this.message = message;
+    }
+
+    LogEvent(int priority, long timeMillis, String thread, LineFormat format,
+             Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        this.priority = priority;
+        this.timeMillis = timeMillis;
+        this.thread = thread;
+        this.event = format.event();
+        this.tag = format.tag();
+        this.format = format;
+        this.arg0 = Payload.render(arg0);
+        this.arg1 = Payload.render(arg1);
+        this.arg2 = Payload.render(arg2);
+        this.arg3 = Payload.render(arg3);
+        this.arg4 = Payload.render(arg4);
+    }
+
+    /**
+     * @return formatted text line of the event
+     */
+    public String message() {
+        String m = message;
+        if (m == null) {
+            // benign race, formatting is idempotent
+            m = format.format(arg0, arg1, arg2, arg3, arg4);
+            message = m;
+        }
+        return m;
+    }
+
+    /**
+     * @return number of line arguments following the tag, 0 for preformatted events
+     */
+    public int argCount() {
+        return format != null ? format.argCount() : 0;
+    }
+
+    /**
+     * @param index index of the argument, from 0 to {@link #argCount()} - 1
+     * @return argument of the line following the tag (subscription id, item, thread...), items
+     * are already rendered to strings
+     */
+    public Object arg(int index) {
+        if (index < 0 || index >= argCount()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", argCount: " + argCount());
+        }
+        switch (index) {
+            case 0:
+                return arg0;
+            case 1:
+                return arg1;
+            case 2:
+                return arg2;
+            case 3:
+                return arg3;
+            default:
+                return arg4;
+        }
+    }
+
+    @Override public String toString() {
+        return priority + " " + timeMillis + " [" + thread + "] " + message();
+    }
+}
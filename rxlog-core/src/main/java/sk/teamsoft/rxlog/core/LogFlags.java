@@ -0,0 +1,42 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Event flags of transformer bitmasks, shared by the RxJava2 (RxLog) and RxJava1 (RxLog1)
+ * adapters, which expose them under the same names
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogFlags {
+
+    public static final int LOG_NEXT_DATA = 1;
+    public static final int LOG_NEXT_EVENT = 2;
+    public static final int LOG_ERROR = 4;
+    public static final int LOG_COMPLETE = 8;
+    public static final int LOG_SUBSCRIBE = 16;
+    public static final int LOG_TERMINATE = 32;
+    /** dispose of RxJava2 sources, unsubscribe of RxJava1 sources */
+    public static final int LOG_DISPOSE = 64;
+    /** records counters and latencies of the stream into {@link RxLogMetrics} instead of text lines */
+    public static final int LOG_METRICS = 128;
+    /** backpressured sources only, logs request(n) calls with outstanding demand and zero-demand stalls */
+    public static final int LOG_REQUEST = 256;
+    /** Flowable only, logs cancel of the subscription (Flowable equivalent of {@link #LOG_DISPOSE}) */
+    public static final int LOG_CANCEL = 512;
+    /** reports subscriptions idle longer than a timeout and onNext handling over budget, see {@link LogOptions} */
+    public static final int LOG_WATCHDOG = 1024;
+    /** registers active subscriptions into {@link RxLogRegistry} for snapshots and leak detection */
+    public static final int LOG_REGISTRY = 2048;
+    /** logs next events with data only when the item differs from the last logged one, see {@link LogOptions.Builder#changeKey} */
+    public static final int LOG_NEXT_CHANGED = 4096;
+    /** records the last events of each subscription without formatting, dumped when it fails, see {@link RxLogFlightRecorder} */
+    public static final int LOG_FLIGHT = 8192;
+    /** ParallelFlowable only, counts items and busy time per rail and reports rail imbalance, see {@link RxLogParallel} */
+    public static final int LOG_RAILS = 16384;
+
+    /** events logged by the short variants of transformers, e.g. {@code RxLog.log(msg)} */
+    public static final int LOG_ALL = LOG_NEXT_DATA | LOG_ERROR | LOG_COMPLETE | LOG_SUBSCRIBE | LOG_TERMINATE | LOG_DISPOSE;
+
+    private LogFlags() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,313 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Additional options of a logging transformer, which can not be expressed by the event bitmask
+ * <p>
+ * Sampling options apply to onNext logging ({@link LogFlags#LOG_NEXT_DATA}/{@link LogFlags#LOG_NEXT_EVENT})
+ * and are evaluated per subscription, before any formatting is done. When more of them are set,
+ * an item is logged only if it passes all of them. Number of suppressed items is reported when
+ * the subscription completes, fails or is disposed
+ * <p>
+ * Items of {@link LogFlags#LOG_NEXT_DATA} events are rendered by {@link BoundedRenderer#DEFAULT},
+ * unless other {@link PayloadRenderer} is set
+ * <p>
+ * With {@link LogFlags#LOG_NEXT_CHANGED}, items are compared to the last logged item by their
+ * {@link ItemKey} ({@link ItemKey#EQUALS} by default), and only changed items are rendered
+ * and logged
+ * <p>
+ * Flowables with {@link LogFlags#LOG_REQUEST} report periods without outstanding demand longer
+ * than the stall threshold (10 ms by default)
+ * <p>
+ * Subscription ids distinguish concurrent subscriptions of the same stream, e.g. {@code [onNext] search#12}.
+ * With thread hops only, the thread is printed only on events, which run on a different thread
+ * than the previous logged event of the same subscription
+ * <p>
+ * Coalescing aggregates next events of a subscription into summary lines with count, duration
+ * and first/last item, e.g. {@code [onNext] clicks x412 in 50ms, first=..., last=...}
+ * <p>
+ * With {@link LogFlags#LOG_WATCHDOG}, subscriptions without items for longer than the idle timeout
+ * (10 s by default), and onNext calls of downstream taking longer than the next budget (16 ms by
+ * default) are reported
+ * <p>
+ * With {@link LogFlags#LOG_FLIGHT}, each subscription records its last events (64 by default) into
+ * a ring, which is logged only when the subscription fails, see {@link RxLogFlightRecorder}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogOptions {
+
+    public static final LogOptions DEFAULT = builder().build();
+
+    final int everyNth;
+    final double maxPerSecond;
+    final long sampleWindowNanos;
+    final PayloadRenderer renderer;
+    final ItemKey changeKey;
+    final long stallThresholdNanos;
+    final boolean subscriptionIds;
+    final boolean threadHopsOnly;
+    final long coalesceWindowNanos;
+    final int coalesceCount;
+    final long idleTimeoutNanos;
+    final long nextBudgetNanos;
+    final int flightEvents;
+
+    private LogOptions(Builder builder) {
+        this.everyNth = builder.everyNth;
+        this.maxPerSecond = builder.maxPerSecond;
+        this.sampleWindowNanos = builder.sampleWindowNanos;
+        this.renderer = builder.renderer;
+        this.changeKey = builder.changeKey;
+        this.stallThresholdNanos = builder.stallThresholdNanos;
+        this.subscriptionIds = builder.subscriptionIds;
+        this.threadHopsOnly = builder.threadHopsOnly;
+        this.coalesceWindowNanos = builder.coalesceWindowNanos;
+        this.coalesceCount = builder.coalesceCount;
+        this.idleTimeoutNanos = builder.idleTimeoutNanos;
+        this.nextBudgetNanos = builder.nextBudgetNanos;
+        this.flightEvents = builder.flightEvents;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    boolean isSampling() {
+        return everyNth > 1 || maxPerSecond > 0 || sampleWindowNanos > 0;
+    }
+
+    boolean isCoalescing() {
+        return coalesceWindowNanos > 0 || coalesceCount > 0;
+    }
+
+    /**
+     * @return new sampler for one subscription, or null if sampling is not configured
+     */
+    Sampler newSampler() {
+        return isSampling() ? new Sampler(everyNth, maxPerSecond, sampleWindowNanos) : null;
+    }
+
+    /**
+     * @return new change filter for one subscription
+     */
+    ChangeFilter newChangeFilter() {
+        return new ChangeFilter(changeKey);
+    }
+
+    public static final class Builder {
+
+        private int everyNth;
+        private double maxPerSecond;
+        private long sampleWindowNanos;
+        private PayloadRenderer renderer = BoundedRenderer.DEFAULT;
+        private ItemKey changeKey = ItemKey.EQUALS;
+        private long stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private boolean subscriptionIds;
+        private boolean threadHopsOnly;
+        private long coalesceWindowNanos;
+        private int coalesceCount;
+        private long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+        private long nextBudgetNanos = TimeUnit.MILLISECONDS.toNanos(16);
+        private int flightEvents = 64;
+
+        Builder() {
+        }
+
+        Builder(LogOptions options) {
+            this.everyNth = options.everyNth;
+            this.maxPerSecond = options.maxPerSecond;
+            this.sampleWindowNanos = options.sampleWindowNanos;
+            this.renderer = options.renderer;
+            this.changeKey = options.changeKey;
+            this.stallThresholdNanos = options.stallThresholdNanos;
+            this.subscriptionIds = options.subscriptionIds;
+            this.threadHopsOnly = options.threadHopsOnly;
+            this.coalesceWindowNanos = options.coalesceWindowNanos;
+            this.coalesceCount = options.coalesceCount;
+            this.idleTimeoutNanos = options.idleTimeoutNanos;
+            this.nextBudgetNanos = options.nextBudgetNanos;
+            this.flightEvents = options.flightEvents;
+        }
+
+        /**
+         * Logs only every n-th item (first, n+1-th, ...)
+         * @param n sampling step, 1 or less disables this option
+         * @return builder
+         */
+        public Builder everyNth(int n) {
+            this.everyNth = n;
+            return this;
+        }
+
+        /**
+         * Caps logged items by a token bucket refilled with given rate, burst equals to one
+         * second worth of tokens, but at least one item, so rates below 1/s log the first item
+         * @param itemsPerSecond max logged items per second, 0 disables this option
+         * @return builder
+         */
+        public Builder maxPerSecond(double itemsPerSecond) {
+            if (itemsPerSecond < 0) {
+                throw new IllegalArgumentException("itemsPerSecond < 0: " + itemsPerSecond);
+            }
+            this.maxPerSecond = itemsPerSecond;
+            return this;
+        }
+
+        /**
+         * Logs only the first item of every time window
+         * @param window window length, 0 disables this option
+         * @param unit   time unit
+         * @return builder
+         */
+        public Builder sampleWindow(long window, TimeUnit unit) {
+            if (window < 0) {
+                throw new IllegalArgumentException("window < 0: " + window);
+            }
+            this.sampleWindowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Sets renderer of items logged with {@link LogFlags#LOG_NEXT_DATA}
+         * @param renderer payload renderer, e.g. {@link BoundedRenderer} or {@link PayloadRenderer#TO_STRING}
+         * @return builder
+         */
+        public Builder renderer(PayloadRenderer renderer) {
+            if (renderer == null) {
+                throw new NullPointerException("renderer == null");
+            }
+            this.renderer = renderer;
+            return this;
+        }
+
+        /**
+         * Sets key, by which {@link LogFlags#LOG_NEXT_CHANGED} compares items
+         * @param key item key, e.g. id or version of the item, {@link ItemKey#HASH_CODE} compares hashes of whole items
+         * @return builder
+         */
+        public Builder changeKey(ItemKey key) {
+            if (key == null) {
+                throw new NullPointerException("key == null");
+            }
+            this.changeKey = key;
+            return this;
+        }
+
+        /**
+         * Sets minimal duration of zero-demand period of a Flowable, which is reported as a stall
+         * @param threshold threshold, 0 reports every period
+         * @param unit      time unit
+         * @return builder
+         */
+        public Builder stallThreshold(long threshold, TimeUnit unit) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold < 0: " + threshold);
+            }
+            this.stallThresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * Appends increasing subscription id to the message of every event
+         * @param enabled true to print subscription ids
+         * @return builder
+         */
+        public Builder subscriptionIds(boolean enabled) {
+            this.subscriptionIds = enabled;
+            return this;
+        }
+
+        /**
+         * Prints the thread only when an event runs on other thread than the previous logged
+         * event of the same subscription, on any event type
+         * @param enabled true to print only thread hops
+         * @return builder
+         */
+        public Builder threadHopsOnly(boolean enabled) {
+            this.threadHopsOnly = enabled;
+            return this;
+        }
+
+        /**
+         * Logs next events as one summary line per time window, which starts with the first
+         * item of a batch. Pending summary is logged on complete, error and dispose
+         * @param window window length, 0 disables this option
+         * @param unit   time unit
+         * @return builder
+         */
+        public Builder coalesce(long window, TimeUnit unit) {
+            if (window < 0) {
+                throw new IllegalArgumentException("window < 0: " + window);
+            }
+            this.coalesceWindowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Logs next events as one summary line per given number of items, can be combined with
+         * {@link #coalesce(long, TimeUnit)}, the batch ends with whichever comes first
+         * @param maxItems max items in one summary, 0 disables this option
+         * @return builder
+         */
+        public Builder coalesceCount(int maxItems) {
+            if (maxItems < 0) {
+                throw new IllegalArgumentException("maxItems < 0: " + maxItems);
+            }
+            this.coalesceCount = maxItems;
+            return this;
+        }
+
+        /**
+         * Sets time without items, after which {@link LogFlags#LOG_WATCHDOG} reports the
+         * subscription as idle, precision is about 10 ms
+         * @param timeout idle timeout, 0 disables idle detection
+         * @param unit    time unit
+         * @return builder
+         */
+        public Builder idleTimeout(long timeout, TimeUnit unit) {
+            if (timeout < 0) {
+                throw new IllegalArgumentException("timeout < 0: " + timeout);
+            }
+            this.idleTimeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        /**
+         * Sets max duration of downstream onNext, above which {@link LogFlags#LOG_WATCHDOG} reports
+         * slow consumer (Observable and Flowable, not measured for fused items)
+         * @param budget time budget, 0 disables slow consumer detection
+         * @param unit   time unit
+         * @return builder
+         */
+        public Builder nextBudget(long budget, TimeUnit unit) {
+            if (budget < 0) {
+                throw new IllegalArgumentException("budget < 0: " + budget);
+            }
+            this.nextBudgetNanos = unit.toNanos(budget);
+            return this;
+        }
+
+        /**
+         * Sets number of the last events, which {@link LogFlags#LOG_FLIGHT} keeps per subscription
+         * @param events ring capacity
+         * @return builder
+         */
+        public Builder flightRecorder(int events) {
+            if (events <= 0) {
+                throw new IllegalArgumentException("events <= 0: " + events);
+            }
+            this.flightEvents = events;
+            return this;
+        }
+
+        public LogOptions build() {
+            return new LogOptions(this);
+        }
+    }
+}
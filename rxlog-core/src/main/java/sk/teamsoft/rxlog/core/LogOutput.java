@@ -0,0 +1,87 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Collections;
+
+/**
+ * Single output point of all log lines, writes them to the current {@link LogSink} directly or
+ * hands them over to {@link AsyncLog} when asynchronous mode is running
+ * <p>
+ * Without any configuration events go to Timber ({@link TimberSink}) when it is on the classpath
+ * (Android), otherwise to java.util.logging ({@link JulSink}). A sink set by
+ * {@link #setSink(LogSink)} always takes precedence. Fixed-arity overloads avoid allocating
+ * varargs arrays on the emitting thread. Lines which the sink does not want
+ * ({@link LogSink#isLoggable(int)}) are dropped before formatting
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogOutput {
+
+    private static volatile LogSink sink = platformSink();
+
+    private LogOutput() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * The only sink configuration point, replaces the platform default
+     * @param sink destination of all following events, also of those already pending in {@link AsyncLog}
+     */
+    public static void setSink(LogSink sink) {
+        if (sink == null) {
+            throw new NullPointerException("sink == null");
+        }
+        LogOutput.sink = sink;
+    }
+
+    public static LogSink getSink() {
+        return sink;
+    }
+
+    /**
+     * Lets callers skip building the arguments of a line, which would be dropped
+     * @param priority priority of the line, see {@link LogEvent}
+     * @return false if the current sink discards lines of given priority
+     */
+    public static boolean isLoggable(int priority) {
+        return sink.isLoggable(priority);
+    }
+
+    /**
+     * @return Timber sink if Timber is available, TimberSink is not loaded otherwise
+     */
+    private static LogSink platformSink() {
+        try {
+            Class.forName("timber.log.Timber");
+            return new TimberSink();
+        } catch (ClassNotFoundException e) {
+            return new JulSink();
+        }
+    }
+
+    public static void print(int priority, LineFormat format, Object arg0) {
+        print(priority, format, arg0, null, null, null, null);
+    }
+
+    public static void print(int priority, LineFormat format, Object arg0, Object arg1) {
+        print(priority, format, arg0, arg1, null, null, null);
+    }
+
+    public static void print(int priority, LineFormat format, Object arg0, Object arg1, Object arg2) {
+        print(priority, format, arg0, arg1, arg2, null, null);
+    }
+
+    public static void print(int priority, LineFormat format, Object arg0, Object arg1, Object arg2, Object arg3) {
+        print(priority, format, arg0, arg1, arg2, arg3, null);
+    }
+
+    public static void print(int priority, LineFormat format, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        LogSink sink = LogOutput.sink;
+        if (!sink.isLoggable(priority)) {
+            return;
+        }
+        if (!AsyncLog.publish(priority, format, arg0, arg1, arg2, arg3, arg4)) {
+            sink.write(Collections.singletonList(new LogEvent(priority, System.currentTimeMillis(),
+                    LineFormat.threadName(), format, arg0, arg1, arg2, arg3, arg4)));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Mutable log line record (up to five format arguments), preallocated in {@link RingBuffer} slots and reused for every event
+ * @author Dusan Bartos
+ */
+final class LogRecord {
+
+    /** slot position claimed by the producer, used to publish the record */
+    long position;
+
+    int priority;
+    long timeMillis;
+    String thread;
+    LineFormat format;
+    Object arg0;
+    Object arg1;
+    Object arg2;
+    Object arg3;
+    Object arg4;
+
+    void set(int priority, long timeMillis, String thread, LineFormat format, Object arg0, Object arg1, Object arg2, Object arg3, Object arg4) {
+        this.priority = priority;
+        this.timeMillis = timeMillis;
+        this.thread = thread;
+        this.format = format;
+        this.arg0 = arg0;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.arg3 = arg3;
+        this.arg4 = arg4;
+    }
+
+    void copyFrom(LogRecord other) {
+        set(other.priority, other.timeMillis, other.thread, other.format, other.arg0, other.arg1, other.arg2, other.arg3, other.arg4);
+    }
+
+    void clear() {
+        set(0, 0, null, null, null, null, null, null, null);
+    }
+
+    LogEvent toEvent() {
+        return new LogEvent(priority, timeMillis, thread, format, arg0, arg1, arg2, arg3, arg4);
+    }
+}
@@ -0,0 +1,462 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sk.teamsoft.rxlog.core.EventLogger.NEXT_ANY;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_FLIGHT;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_METRICS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_CHANGED;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_RAILS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_REGISTRY;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_REQUEST;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_WATCHDOG;
+
+/**
+ * Logging state of a single subscription, created by the operator for every subscriber
+ * <p>
+ * Every event reads the configuration once and then dispatches it to text logging and metrics.
+ * The session also carries subscription id and last thread, which decorate its text lines, and
+ * the flight recorder of the subscription
+ * <p>
+ * Rx adapters call the event methods from their operators, in the order of the Rx protocol
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogSession {
+
+    private static final AtomicIntegerFieldUpdater<LogSession> ENDED =
+            AtomicIntegerFieldUpdater.newUpdater(LogSession.class, "ended");
+    private static final AtomicIntegerFieldUpdater<LogSession> RAIL_ENDED =
+            AtomicIntegerFieldUpdater.newUpdater(LogSession.class, "railEnded");
+
+    private static final AtomicLong ids = new AtomicLong();
+
+    private final EventLogger logger;
+    private final Sampler sampler;
+    /** change-only state, null if {@link LogFlags#LOG_NEXT_CHANGED} is not in the bitmask */
+    private final ChangeFilter changes;
+    /** aggregates next events into summaries, null if coalescing is not configured */
+    private final Coalescer coalescer;
+    final long id;
+    /** "#id" and "[rail]" appended to the message, empty if subscription ids are not enabled and not on a rail */
+    final String idSuffix;
+    /** index of the rail of a ParallelFlowable, -1 for other sources */
+    private final int rail;
+    /** rail accounting shared by all rails of a ParallelFlowable subscription, null if not enabled */
+    private final Rails rails;
+    private final boolean threadHopsOnly;
+    /** thread of the last logged event, used to detect thread hops */
+    private Thread lastThread;
+    /** backpressure accounting, created on subscribe when {@link LogFlags#LOG_REQUEST} is enabled */
+    private DemandTracker demand;
+    /** idle detection, started on subscribe when {@link LogFlags#LOG_WATCHDOG} is enabled */
+    private Watchdog watchdog;
+    /** entry in {@link RxLogRegistry}, registered on subscribe when {@link LogFlags#LOG_REGISTRY} is enabled */
+    private Registration registration;
+    /** ring of the last events, created on subscribe when {@link LogFlags#LOG_FLIGHT} is enabled */
+    private FlightRecorder flight;
+    /** true if downstream onNext is timed against {@link LogOptions#nextBudgetNanos} */
+    private boolean timingDownstream;
+
+    /** true if this subscription is counted in metrics of the stream */
+    private boolean tracked;
+    private long subscribedAt;
+    private long lastItemAt;
+    private volatile int ended;
+    private volatile int railEnded;
+
+    LogSession(EventLogger logger, int rail, Rails rails) {
+        this.logger = logger;
+        this.sampler = logger.options.newSampler();
+        this.changes = (logger.bitMask & LOG_NEXT_CHANGED) != 0 ? logger.options.newChangeFilter() : null;
+        this.id = ids.incrementAndGet();
+        String suffix = logger.options.subscriptionIds ? "#" + id : "";
+        this.idSuffix = rail >= 0 ? suffix + "[" + rail + "]" : suffix;
+        this.rail = rail;
+        this.rails = rails;
+        this.threadHopsOnly = logger.options.threadHopsOnly;
+        this.coalescer = logger.options.isCoalescing()
+                ? new Coalescer(this, logger, logger.options.coalesceWindowNanos, logger.options.coalesceCount) : null;
+    }
+
+    public void subscribe() {
+        int mask = logger.mask();
+        if ((mask & LOG_METRICS) != 0) {
+            StreamMetrics metrics = logger.metrics;
+            tracked = true;
+            subscribedAt = System.nanoTime();
+            metrics.subscribes.increment();
+            metrics.active.increment();
+        }
+        if ((mask & LOG_REQUEST) != 0) {
+            demand = new DemandTracker();
+        }
+        if ((mask & LOG_WATCHDOG) != 0) {
+            LogOptions options = logger.options;
+            timingDownstream = options.nextBudgetNanos > 0;
+            if (options.idleTimeoutNanos > 0) {
+                watchdog = new Watchdog(this, logger, options.idleTimeoutNanos);
+                watchdog.start();
+            }
+        }
+        if ((mask & LOG_REGISTRY) != 0) {
+            registration = RxLogRegistry.register(this, logger.msg, id);
+        }
+        if ((mask & LOG_FLIGHT) != 0) {
+            flight = new FlightRecorder(logger.msg, idSuffix, logger.options);
+            flight.record(JournalWriter.SUBSCRIBE);
+            RxLogFlightRecorder.register(flight);
+        }
+        logger.subscribe(mask, this);
+    }
+
+    public void next(Object data) {
+        int mask = logger.mask();
+        if (demand != null) {
+            demand.next();
+        }
+        if (watchdog != null) {
+            watchdog.touch();
+        }
+        if (registration != null) {
+            registration.next();
+        }
+        if (tracked && (mask & LOG_METRICS) != 0) {
+            recordNext();
+        }
+        if (rails != null) {
+            rails.next(rail);
+        }
+        if (flight != null) {
+            flight.recordItem(JournalWriter.NEXT, data);
+        }
+        if ((mask & LOG_NEXT_CHANGED) != 0 && !changed(data)) {
+            return;
+        }
+        if ((mask & NEXT_ANY) != 0 && (sampler == null || sampler.sample())) {
+            if (coalescer != null && EventJournal.writer == null) {
+                coalescer.add(data);
+            } else {
+                logger.next(mask, this, data);
+            }
+        }
+    }
+
+    /**
+     * Single/Maybe success, counted as both next and complete in metrics
+     */
+    public void success(Object data) {
+        int mask = logger.mask();
+        if (flight != null) {
+            flight.recordItem(JournalWriter.SUCCESS, data);
+        }
+        release();
+        if (tracked && (mask & LOG_METRICS) != 0) {
+            recordNext();
+            logger.metrics.completes.increment();
+        }
+        end();
+        logger.success(mask, this, data);
+    }
+
+    public void terminate() {
+        logger.terminate(logger.mask(), this);
+    }
+
+    public void error(Throwable e) {
+        int mask = logger.mask();
+        if (tracked && (mask & LOG_METRICS) != 0) {
+            logger.metrics.errors.increment();
+        }
+        end();
+        if (flight != null) {
+            flight.recordError(e);
+        }
+        release();
+        closeCoalescer();
+        logger.error(mask, this, e);
+        if (flight != null && (mask & LOG_FLIGHT) != 0) {
+            flight.dump();
+        }
+        report(mask);
+        reportStall(mask);
+        endRail(mask);
+    }
+
+    public void complete() {
+        int mask = logger.mask();
+        recordComplete(mask);
+        record(JournalWriter.COMPLETE);
+        release();
+        closeCoalescer();
+        logger.complete(mask, this);
+        report(mask);
+        reportStall(mask);
+        endRail(mask);
+    }
+
+    /**
+     * Variant of {@link #complete()} used by Maybe and Completable
+     */
+    public void completeOnThread() {
+        int mask = logger.mask();
+        recordComplete(mask);
+        record(JournalWriter.COMPLETE);
+        release();
+        logger.completeOnThread(mask, this);
+        report(mask);
+    }
+
+    public void dispose() {
+        int mask = logger.mask();
+        if (end() && (mask & LOG_METRICS) != 0) {
+            logger.metrics.disposes.increment();
+        }
+        record(JournalWriter.DISPOSE);
+        release();
+        closeCoalescer();
+        logger.dispose(mask, this);
+        report(mask);
+    }
+
+    /**
+     * RxJava1 unsubscribe, counted as dispose in metrics
+     * <p>
+     * RxJava1 unsubscribes also after terminal events, then only the line is logged
+     */
+    public void unsubscribe() {
+        int mask = logger.mask();
+        if (end() && (mask & LOG_METRICS) != 0) {
+            logger.metrics.disposes.increment();
+        }
+        record(JournalWriter.DISPOSE);
+        release();
+        closeCoalescer();
+        logger.unsubscribe(mask, this);
+        report(mask);
+    }
+
+    /**
+     * Flowable cancel, counted as dispose in metrics
+     */
+    public void cancel() {
+        int mask = logger.mask();
+        if (end() && (mask & LOG_METRICS) != 0) {
+            logger.metrics.disposes.increment();
+        }
+        record(JournalWriter.CANCEL);
+        release();
+        closeCoalescer();
+        logger.cancel(mask, this);
+        report(mask);
+        reportStall(mask);
+        endRail(mask);
+    }
+
+    public void request(long n) {
+        FlightRecorder f = flight;
+        if (f != null) {
+            f.recordRequest(n);
+        }
+        DemandTracker d = demand;
+        if (d != null) {
+            long stalled = d.request(n);
+            int mask = logger.mask();
+            if (stalled > 0 && stalled >= logger.options.stallThresholdNanos) {
+                logger.stall(mask, this, stalled, d);
+            }
+            logger.request(mask, this, n, d);
+        }
+    }
+
+    /**
+     * @return message of the transformer
+     */
+    public String tag() {
+        return logger.msg;
+    }
+
+    /**
+     * Tags tasks scheduled by current thread with this stream, see {@link SchedulerStats#enter(String)}
+     * @return value to be passed to {@link #exitTag(String)} in a finally block
+     */
+    public String enterTag() {
+        return SchedulerStats.enter(logger.msg);
+    }
+
+    /**
+     * @param outer value returned by the matching {@link #enterTag()}
+     */
+    public void exitTag(String outer) {
+        SchedulerStats.exit(outer);
+    }
+
+    /**
+     * @return start time of downstream onNext, or 0 if it is not timed
+     */
+    public long downstreamStart() {
+        return timingDownstream || rails != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds busy time of the rail, and reports slow consumer if downstream onNext started at
+     * given time took over the budget
+     */
+    public void downstreamEnd(long start) {
+        long took = System.nanoTime() - start;
+        if (rails != null) {
+            rails.busy(rail, took);
+        }
+        if (timingDownstream && took > logger.options.nextBudgetNanos) {
+            logger.slow(logger.mask(), this, took);
+        }
+    }
+
+    /**
+     * @return true if requests of the subscription are logged or recorded, so the operator has to
+     * intercept them (RxJava1 producers)
+     */
+    public boolean isTrackingRequests() {
+        return demand != null || flight != null;
+    }
+
+    /**
+     * Stops demand accounting, used when the source is synchronously fused and items are
+     * pulled without requests
+     */
+    public void untrackDemand() {
+        demand = null;
+    }
+
+    /**
+     * Thread suffix of events, which always show the thread (subscribe, next, success)
+     * <p>
+     * Must be called only when the line is really printed (after the sink accepted its priority),
+     * it updates the last thread
+     */
+    String thread() {
+        return threadHopsOnly ? hop() : LineFormat.threadSuffix();
+    }
+
+    /**
+     * Thread suffix of other events, shown only on thread hop when enabled
+     * <p>
+     * Same as {@link #thread()}, must be called only when the line is really printed
+     */
+    String hop() {
+        if (!threadHopsOnly) {
+            return "";
+        }
+        Thread current = Thread.currentThread();
+        if (current == lastThread) {
+            return "";
+        }
+        lastThread = current;
+        return LineFormat.threadSuffix();
+    }
+
+    /**
+     * @return true if the item differs from the last logged one, duplicates are reported before it
+     */
+    private boolean changed(Object data) {
+        if (!changes.changed(data)) {
+            return false;
+        }
+        changes.report(logger.msg, idSuffix);
+        return true;
+    }
+
+    private void recordNext() {
+        StreamMetrics metrics = logger.metrics;
+        long now = System.nanoTime();
+        metrics.nexts.increment();
+        if (lastItemAt == 0) {
+            metrics.firstItem.record(now - subscribedAt);
+        } else {
+            metrics.interArrival.record(now - lastItemAt);
+        }
+        lastItemAt = now;
+    }
+
+    private void recordComplete(int mask) {
+        if (tracked && (mask & LOG_METRICS) != 0) {
+            logger.metrics.completes.increment();
+        }
+        end();
+    }
+
+    /**
+     * Ends tracked subscription, only the first terminal event or dispose does it
+     * @return true if the subscription was ended by this call
+     */
+    private boolean end() {
+        if (tracked && ENDED.compareAndSet(this, 0, 1)) {
+            StreamMetrics metrics = logger.metrics;
+            metrics.active.decrement();
+            metrics.lifetime.record(System.nanoTime() - subscribedAt);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stops the watchdog and removes the subscription from the registry, on terminal event or dispose
+     */
+    private void release() {
+        Watchdog w = watchdog;
+        if (w != null) {
+            w.stop();
+        }
+        Registration r = registration;
+        if (r != null) {
+            RxLogRegistry.unregister(r);
+        }
+        FlightRecorder f = flight;
+        if (f != null) {
+            RxLogFlightRecorder.unregister(f);
+        }
+    }
+
+    private void record(int type) {
+        FlightRecorder f = flight;
+        if (f != null) {
+            f.record(type);
+        }
+    }
+
+    /**
+     * Ends the rail, only the first terminal event or cancel does it. The last ended rail of the
+     * subscription reports the distribution of work
+     */
+    private void endRail(int mask) {
+        if (rails != null && RAIL_ENDED.compareAndSet(this, 0, 1) && rails.end() && (mask & LOG_RAILS) != 0) {
+            RxLogParallel.report(rails);
+        }
+    }
+
+    private void closeCoalescer() {
+        if (coalescer != null) {
+            coalescer.close();
+        }
+    }
+
+    private void reportStall(int mask) {
+        DemandTracker d = demand;
+        if (d != null) {
+            long stalled = d.stalledNanos();
+            if (stalled > 0 && stalled >= logger.options.stallThresholdNanos) {
+                logger.stall(mask, this, stalled, d);
+            }
+        }
+    }
+
+    private void report(int mask) {
+        if (sampler != null && (mask & NEXT_ANY) != 0) {
+            sampler.report(logger.msg, idSuffix);
+        }
+        if (changes != null && (mask & LOG_NEXT_CHANGED) != 0) {
+            changes.report(logger.msg, idSuffix);
+        }
+    }
+}
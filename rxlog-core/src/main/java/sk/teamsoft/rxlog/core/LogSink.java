@@ -0,0 +1,32 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.List;
+
+/**
+ * Destination of RxLog events, set by {@link LogOutput#setSink(LogSink)}
+ * <p>
+ * Events are delivered in batches. Synchronous logging writes batches of a single event on the
+ * emitting thread, {@link AsyncLog} writes everything pending (up to {@link AsyncLog#MAX_BATCH})
+ * at once from its drainer thread, so sinks can take their locks and flush their I/O once per
+ * batch
+ * @author Dusan Bartos
+ * @see JulSink
+ * @see Slf4jSink
+ * @see InMemorySink
+ */
+public interface LogSink {
+
+    /**
+     * Checked on the emitting thread before the line is formatted or published, so events which
+     * the sink would discard cost no formatting nor rendering of their data
+     * @param priority priority of the event, see {@link LogEvent}
+     * @return false if events of given priority would be discarded
+     */
+    boolean isLoggable(int priority);
+
+    /**
+     * @param events events in order of publishing, the list is reused after this call returns,
+     *               events themselves are immutable and can be kept
+     */
+    void write(List<LogEvent> events);
+}
@@ -0,0 +1,182 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed-wheel timer on a single daemon thread, shared by all subscriptions, which need delayed
+ * work (flushing of coalesced events, watchdog checks, error summaries), so that no
+ * subscription creates its own timer
+ * <p>
+ * Arming only enqueues the timeout and cancelling only marks it, both are O(1) and lock-free.
+ * The timer thread moves new timeouts into wheel buckets and expires one bucket per tick, so
+ * deadlines are rounded up to {@link #TICK_NANOS}. Cancelled timeouts are unlinked when their
+ * bucket is visited
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class LogTimer {
+
+    public static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private static volatile Worker worker;
+
+    private LogTimer() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Runs given task once after the delay on the timer thread, the task must be short and must
+     * not throw
+     * @return timeout, which can be cancelled
+     */
+    public static Timeout schedule(Runnable task, long delayNanos) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delayNanos);
+        pending.offer(timeout);
+        worker();
+        return timeout;
+    }
+
+    private static Worker worker() {
+        Worker w = worker;
+        if (w == null) {
+            synchronized (LogTimer.class) {
+                w = worker;
+                if (w == null) {
+                    w = new Worker();
+                    w.start();
+                    worker = w;
+                }
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Scheduled task, linked into a wheel bucket by the timer thread
+     */
+    public static final class Timeout {
+
+        final Runnable task;
+        final long deadline;
+        volatile boolean cancelled;
+
+        // owned by the timer thread
+        long rounds;
+        Timeout prev;
+        Timeout next;
+        Bucket bucket;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class Bucket {
+
+        Timeout head;
+        Timeout tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            t.next = null;
+            if (tail == null) {
+                head = t;
+            } else {
+                tail.next = t;
+            }
+            tail = t;
+        }
+
+        Timeout remove(Timeout t) {
+            Timeout next = t.next;
+            if (t.prev != null) {
+                t.prev.next = next;
+            } else {
+                head = next;
+            }
+            if (next != null) {
+                next.prev = t.prev;
+            } else {
+                tail = t.prev;
+            }
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+            return next;
+        }
+
+        void expire(long now) {
+            Timeout t = head;
+            while (t != null) {
+                if (t.cancelled) {
+                    t = remove(t);
+                } else if (t.rounds <= 0 && t.deadline <= now) {
+                    Timeout next = remove(t);
+                    try {
+                        t.task.run();
+                    } catch (Throwable e) {
+                        // never let a failing task kill the shared timer
+                    }
+                    t = next;
+                } else {
+                    if (t.rounds > 0) {
+                        t.rounds--;
+                    }
+                    t = t.next;
+                }
+            }
+        }
+    }
+
+    private static final class Worker extends Thread {
+
+        private final Bucket[] wheel = new Bucket[WHEEL_SIZE];
+        private final long startTime = System.nanoTime();
+        private long tick;
+
+        Worker() {
+            super("RxLog-timer");
+            setDaemon(true);
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+
+        @Override public void run() {
+            for (; ; ) {
+                long deadline = startTime + (tick + 1) * TICK_NANOS;
+                long now;
+                while ((now = System.nanoTime()) < deadline) {
+                    LockSupport.parkNanos(this, deadline - now);
+                }
+                transferPending();
+                wheel[(int) (tick & WHEEL_MASK)].expire(now);
+                tick++;
+            }
+        }
+
+        private void transferPending() {
+            Timeout t;
+            while ((t = pending.poll()) != null) {
+                if (t.cancelled) {
+                    continue;
+                }
+                long ticks = Math.max((t.deadline - startTime + TICK_NANOS - 1) / TICK_NANOS, tick);
+                t.rounds = (ticks - tick) / WHEEL_SIZE;
+                wheel[(int) (ticks & WHEEL_MASK)].add(t);
+            }
+        }
+    }
+}
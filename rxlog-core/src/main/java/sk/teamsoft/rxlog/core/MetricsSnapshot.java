@@ -0,0 +1,52 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Immutable snapshot of metrics of one tagged stream, see {@link RxLogMetrics}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class MetricsSnapshot {
+
+    public final String tag;
+    public final long subscribeCount;
+    public final long nextCount;
+    public final long errorCount;
+    public final long completeCount;
+    public final long disposeCount;
+    /** currently active subscriptions */
+    public final long activeCount;
+    /** time from subscribe to the first item */
+    public final HistogramSnapshot firstItem;
+    /** time from subscribe to terminate or dispose */
+    public final HistogramSnapshot lifetime;
+    /** time between two consecutive items of one subscription */
+    public final HistogramSnapshot interArrival;
+
+    MetricsSnapshot(String tag, long subscribeCount, long nextCount, long errorCount, long completeCount,
+                    long disposeCount, long activeCount, HistogramSnapshot firstItem,
+                    HistogramSnapshot lifetime, HistogramSnapshot interArrival) {
+        this.tag = tag;
+        this.subscribeCount = subscribeCount;
+        this.nextCount = nextCount;
+        this.errorCount = errorCount;
+        this.completeCount = completeCount;
+        this.disposeCount = disposeCount;
+        this.activeCount = activeCount;
+        this.firstItem = firstItem;
+        this.lifetime = lifetime;
+        this.interArrival = interArrival;
+    }
+
+    @Override public String toString() {
+        return tag
+                + " subscribe=" + subscribeCount
+                + " next=" + nextCount
+                + " error=" + errorCount
+                + " complete=" + completeCount
+                + " dispose=" + disposeCount
+                + " active=" + activeCount
+                + " | firstItem: " + firstItem
+                + " | lifetime: " + lifetime
+                + " | interArrival: " + interArrival;
+    }
+}
@@ -0,0 +1,100 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable snapshot of rails of one ParallelFlowable subscription, see {@link RxLogParallel}
+ * <p>
+ * Imbalance is the skew between the most and the least loaded rail, the ratio of the maximum to
+ * the minimum over rails. 1.0 means perfectly even distribution, infinity means that a rail got
+ * nothing while others worked
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class ParallelSnapshot {
+
+    public final String tag;
+    /** rails, which have not terminated or been cancelled yet */
+    public final int activeRails;
+
+    private final long[] items;
+    private final long[] busy;
+
+    ParallelSnapshot(String tag, long[] items, long[] busy, int activeRails) {
+        this.tag = tag;
+        this.items = items;
+        this.busy = busy;
+        this.activeRails = activeRails;
+    }
+
+    public int rails() {
+        return items.length;
+    }
+
+    public long items(int rail) {
+        return items[rail];
+    }
+
+    /**
+     * @return time spent by downstream of the rail handling its items, in nanoseconds
+     */
+    public long busyNanos(int rail) {
+        return busy[rail];
+    }
+
+    public double itemImbalance() {
+        return imbalance(items);
+    }
+
+    public double busyImbalance() {
+        return imbalance(busy);
+    }
+
+    /**
+     * @return index of the rail with the highest busy time
+     */
+    public int slowestRail() {
+        int slowest = 0;
+        for (int rail = 1; rail < busy.length; rail++) {
+            if (busy[rail] > busy[slowest]) {
+                slowest = rail;
+            }
+        }
+        return slowest;
+    }
+
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder(64 + items.length * 16);
+        sb.append(tag).append(" x").append(items.length).append(" rails items=");
+        for (int rail = 0; rail < items.length; rail++) {
+            sb.append(rail == 0 ? "" : "/").append(items[rail]);
+        }
+        sb.append(" (imbalance ").append(format(itemImbalance())).append(") busy=");
+        for (int rail = 0; rail < busy.length; rail++) {
+            sb.append(rail == 0 ? "" : "/").append(TimeUnit.NANOSECONDS.toMillis(busy[rail]));
+        }
+        sb.append("ms (imbalance ").append(format(busyImbalance()))
+                .append(", slowest rail ").append(slowestRail()).append(')');
+        if (activeRails > 0) {
+            sb.append(" active=").append(activeRails);
+        }
+        return sb.toString();
+    }
+
+    private static double imbalance(long[] values) {
+        long max = 0;
+        long min = Long.MAX_VALUE;
+        for (long value : values) {
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+        }
+        if (max == 0) {
+            return 1;
+        }
+        return min == 0 ? Double.POSITIVE_INFINITY : (double) max / min;
+    }
+
+    private static String format(double ratio) {
+        return Double.isInfinite(ratio) ? "inf" : String.valueOf(Math.round(ratio * 100) / 100.0);
+    }
+}
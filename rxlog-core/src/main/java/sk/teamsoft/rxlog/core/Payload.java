@@ -0,0 +1,28 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Lazily rendered log argument, the item is rendered only when the line is published, to
+ * {@link AsyncLog} or as a {@link LogEvent} of the sink
+ * @author Dusan Bartos
+ */
+public final class Payload {
+
+    private final PayloadRenderer renderer;
+    private final Object item;
+
+    public Payload(PayloadRenderer renderer, Object item) {
+        this.renderer = renderer;
+        this.item = item;
+    }
+
+    @Override public String toString() {
+        return renderer.render(item);
+    }
+
+    /**
+     * @return rendered payload, other arguments are immutable and are passed as they are
+     */
+    static Object render(Object arg) {
+        return arg instanceof Payload ? arg.toString() : arg;
+    }
+}
@@ -0,0 +1,23 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Renders items of LOG_NEXT_DATA events into log lines
+ * <p>
+ * Rendering is lazy, renderer is called only when the line is really formatted, so events
+ * dropped by sampling or by {@link AsyncLog} do not pay for it
+ * @author Dusan Bartos
+ * @see BoundedRenderer
+ */
+public interface PayloadRenderer {
+
+    /**
+     * Renders item via its own {@link Object#toString()}, without any limits
+     */
+    PayloadRenderer TO_STRING = String::valueOf;
+
+    /**
+     * @param item emitted item, may be null
+     * @return text representation of the item
+     */
+    String render(Object item);
+}
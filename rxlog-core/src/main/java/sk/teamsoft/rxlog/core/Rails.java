@@ -0,0 +1,66 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-rail accounting of one subscription of a ParallelFlowable with {@link LogFlags#LOG_RAILS}
+ * <p>
+ * Every rail has its own padded slot with item count and busy time. Events of a rail are
+ * serialized, so each slot has a single writer and is updated by ordered stores without any
+ * contention between rails
+ * @author Dusan Bartos
+ */
+final class Rails {
+
+    /** longs per rail slot, so that every rail has its own cache line */
+    private static final int PAD = 8;
+    private static final int ITEMS = 0;
+    private static final int BUSY = 1;
+
+    final String tag;
+    private final int count;
+    private final AtomicLongArray cells;
+    private final AtomicInteger active;
+
+    Rails(String tag, int count) {
+        this.tag = tag;
+        this.count = count;
+        this.cells = new AtomicLongArray(count * PAD);
+        this.active = new AtomicInteger(count);
+    }
+
+    /**
+     * Counts an item of the rail, called only from the rail
+     */
+    void next(int rail) {
+        int i = rail * PAD + ITEMS;
+        cells.lazySet(i, cells.get(i) + 1);
+    }
+
+    /**
+     * Adds time spent by downstream of the rail, called only from the rail
+     */
+    void busy(int rail, long nanos) {
+        int i = rail * PAD + BUSY;
+        cells.lazySet(i, cells.get(i) + nanos);
+    }
+
+    /**
+     * Ends one rail
+     * @return true if it was the last active rail
+     */
+    boolean end() {
+        return active.decrementAndGet() == 0;
+    }
+
+    ParallelSnapshot snapshot() {
+        long[] items = new long[count];
+        long[] busy = new long[count];
+        for (int rail = 0; rail < count; rail++) {
+            items[rail] = cells.get(rail * PAD + ITEMS);
+            busy[rail] = cells.get(rail * PAD + BUSY);
+        }
+        return new ParallelSnapshot(tag, items, busy, active.get());
+    }
+}
@@ -0,0 +1,58 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Entry of {@link RxLogRegistry} for one active subscription
+ * <p>
+ * Refers to its session weakly, so a subscription which becomes unreachable without terminating
+ * or being disposed is enqueued and can be reported as collected
+ * @author Dusan Bartos
+ */
+final class Registration extends WeakReference<LogSession> {
+
+    private static final AtomicLongFieldUpdater<Registration> NEXTS =
+            AtomicLongFieldUpdater.newUpdater(Registration.class, "nexts");
+    private static final AtomicLongFieldUpdater<Registration> LAST_ITEM_AT =
+            AtomicLongFieldUpdater.newUpdater(Registration.class, "lastItemAt");
+
+    final String tag;
+    final long id;
+    final String thread;
+    final long subscribedAt;
+
+    private volatile long nexts;
+    private volatile long lastItemAt;
+    /** set by the leak sweeper when the subscription was reported as long-lived */
+    boolean reported;
+
+    Registration(LogSession session, ReferenceQueue<LogSession> queue, String tag, long id) {
+        super(session, queue);
+        this.tag = tag;
+        this.id = id;
+        this.thread = Thread.currentThread().getName();
+        this.subscribedAt = System.nanoTime();
+    }
+
+    /**
+     * Counts an item, items are serialized so ordered stores are enough for readers
+     */
+    void next() {
+        NEXTS.lazySet(this, nexts + 1);
+        LAST_ITEM_AT.lazySet(this, System.nanoTime());
+    }
+
+    long nexts() {
+        return nexts;
+    }
+
+    /**
+     * @return System.nanoTime() of the last item, or of subscribe if there was none
+     */
+    long lastActivityAt() {
+        long last = lastItemAt;
+        return last != 0 ? last : subscribedAt;
+    }
+}
@@ -0,0 +1,104 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer queue of preallocated {@link LogRecord}s
+ * <p>
+ * Every slot carries a sequence number, producers claim slots by CAS on the tail and consumers
+ * by CAS on the head, so no locks are taken and no records are allocated after construction.
+ * Consumers may be multiple, which allows producers to evict the oldest record when full
+ * @author Dusan Bartos
+ */
+final class RingBuffer {
+
+    private final int mask;
+    private final LogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    RingBuffer(int capacity) {
+        int size = roundToPowerOfTwo(capacity);
+        mask = size - 1;
+        slots = new LogRecord[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long size() {
+        return Math.max(0, tail.get() - head.get());
+    }
+
+    /**
+     * Claims a free slot for writing. The record has to be handed back via {@link #publish(LogRecord)}
+     * @return record to fill, or null if the buffer is full
+     */
+    LogRecord claim() {
+        long pos = tail.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    LogRecord record = slots[index];
+                    record.position = pos;
+                    return record;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    void publish(LogRecord record) {
+        sequences.lazySet((int) (record.position & mask), record.position + 1);
+    }
+
+    /**
+     * Removes the oldest published record
+     * @param into record which receives a copy of the removed one, may be null to just discard it
+     * @return false if the buffer was empty
+     */
+    boolean poll(LogRecord into) {
+        long pos = head.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    LogRecord record = slots[index];
+                    if (into != null) {
+                        into.copyFrom(record);
+                    }
+                    record.clear();
+                    sequences.lazySet(index, pos + mask + 1);
+                    return true;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        if (value <= 1) {
+            return 2;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,202 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static sk.teamsoft.rxlog.core.LogEvent.DEBUG;
+import static sk.teamsoft.rxlog.core.LogEvent.ERROR;
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogEvent.VERBOSE;
+import static sk.teamsoft.rxlog.core.LogEvent.WARN;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_CANCEL;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_COMPLETE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_DISPOSE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_ERROR;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_FLIGHT;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_METRICS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_CHANGED;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_DATA;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_NEXT_EVENT;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_RAILS;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_REGISTRY;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_REQUEST;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_SUBSCRIBE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_TERMINATE;
+import static sk.teamsoft.rxlog.core.LogFlags.LOG_WATCHDOG;
+
+/**
+ * Global runtime configuration of RxLog, can be changed at any time
+ * <p>
+ * Events are enabled by a global switch, and by event mask and minimal priority, either global or
+ * overridden for a specific message (tag). Transformers assembled while their events are all
+ * disabled return upstream unchanged, operators assembled before check the configuration with a
+ * single volatile read per event
+ * <p>
+ * Priorities are the same as android.util.Log priorities (VERBOSE = 2 ... ASSERT = 7)
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogConfig {
+
+    public static final int ALL_EVENTS = LOG_NEXT_DATA | LOG_NEXT_EVENT | LOG_ERROR | LOG_COMPLETE
+            | LOG_SUBSCRIBE | LOG_TERMINATE | LOG_DISPOSE | LOG_METRICS | LOG_REQUEST | LOG_CANCEL | LOG_WATCHDOG | LOG_REGISTRY | LOG_NEXT_CHANGED
+            | LOG_FLIGHT | LOG_RAILS;
+
+    static volatile State state = State.DEFAULT;
+
+    private RxLogConfig() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Kill switch of all RxLog logging
+     * @param enabled false disables all events regardless of other settings
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        State s = state;
+        state = new State(enabled, s.global, s.tags);
+    }
+
+    public static boolean isEnabled() {
+        return state.enabled;
+    }
+
+    /**
+     * @param eventMask events enabled for all tags without their own override
+     */
+    public static synchronized void setEventMask(int eventMask) {
+        State s = state;
+        state = new State(s.enabled, new Rule(eventMask, s.global.minPriority), s.tags);
+    }
+
+    /**
+     * @param priority minimal priority of events logged for tags without their own override
+     */
+    public static synchronized void setMinPriority(int priority) {
+        State s = state;
+        state = new State(s.enabled, new Rule(s.global.eventMask, priority), s.tags);
+    }
+
+    /**
+     * @param tag       message of the transformer
+     * @param eventMask events enabled for this tag
+     */
+    public static synchronized void setTagEventMask(String tag, int eventMask) {
+        State s = state;
+        Rule rule = s.rule(tag);
+        state = s.withTag(tag, new Rule(eventMask, rule.minPriority));
+    }
+
+    /**
+     * @param tag      message of the transformer
+     * @param priority minimal priority of events logged for this tag
+     */
+    public static synchronized void setTagMinPriority(String tag, int priority) {
+        State s = state;
+        Rule rule = s.rule(tag);
+        state = s.withTag(tag, new Rule(rule.eventMask, priority));
+    }
+
+    /**
+     * Removes override of given tag, global settings apply to it again
+     * @param tag message of the transformer
+     */
+    public static synchronized void clearTag(String tag) {
+        State s = state;
+        if (s.tags.containsKey(tag)) {
+            state = s.withTag(tag, null);
+        }
+    }
+
+    /**
+     * Enables everything and removes all tag overrides
+     */
+    public static synchronized void reset() {
+        state = State.DEFAULT;
+    }
+
+    /**
+     * @param event event flag
+     * @return priority with which is the event logged
+     */
+    static int priorityOf(int event) {
+        switch (event) {
+            case LOG_ERROR:
+            case LOG_FLIGHT:
+                return ERROR;
+            case LOG_WATCHDOG:
+                return WARN;
+            case LOG_COMPLETE:
+            case LOG_RAILS:
+                return INFO;
+            case LOG_NEXT_DATA:
+            case LOG_NEXT_EVENT:
+            case LOG_NEXT_CHANGED:
+                return DEBUG;
+            default:
+                return VERBOSE;
+        }
+    }
+
+    static final class Rule {
+
+        final int eventMask;
+        final int minPriority;
+        final int mask;
+
+        Rule(int eventMask, int minPriority) {
+            this.eventMask = eventMask;
+            this.minPriority = minPriority;
+            // metrics and registry produce no per-event lines, so they are not subject to priority
+            int levelMask = LOG_METRICS | LOG_REGISTRY;
+            for (int event = 1; event <= ALL_EVENTS; event <<= 1) {
+                if ((event & levelMask) == 0 && priorityOf(event) >= minPriority) {
+                    levelMask |= event;
+                }
+            }
+            this.mask = eventMask & levelMask;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the configuration, replaced on every change
+     */
+    static final class State {
+
+        static final State DEFAULT = new State(true, new Rule(ALL_EVENTS, VERBOSE), Collections.<String, Rule>emptyMap());
+
+        final boolean enabled;
+        final Rule global;
+        final Map<String, Rule> tags;
+
+        State(boolean enabled, Rule global, Map<String, Rule> tags) {
+            this.enabled = enabled;
+            this.global = global;
+            this.tags = tags;
+        }
+
+        Rule rule(String tag) {
+            Rule rule = tags.get(tag);
+            return rule != null ? rule : global;
+        }
+
+        /**
+         * @param tag message of the transformer
+         * @return events enabled for the tag
+         */
+        int maskFor(String tag) {
+            return enabled ? rule(tag).mask : 0;
+        }
+
+        State withTag(String tag, Rule rule) {
+            Map<String, Rule> copy = new HashMap<>(tags);
+            if (rule != null) {
+                copy.put(tag, rule);
+            } else {
+                copy.remove(tag);
+            }
+            return new State(enabled, global, Collections.unmodifiableMap(copy));
+        }
+    }
+}
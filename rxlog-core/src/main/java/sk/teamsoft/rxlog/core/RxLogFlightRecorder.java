@@ -0,0 +1,83 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Flight recorders of active subscriptions of transformers with {@link LogFlags#LOG_FLIGHT} flag
+ * <p>
+ * Each subscription records its last events (see {@link LogOptions.Builder#flightRecorder}) into
+ * a ring without any formatting. The ring is written to the log automatically when the
+ * subscription fails, or on demand for all active subscriptions by {@link #dump()}. Recorders
+ * are held weakly, so subscriptions which are never disposed are not kept alive
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogFlightRecorder {
+
+    private static final ConcurrentMap<Reference<FlightRecorder>, Boolean> active = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<FlightRecorder> collected = new ReferenceQueue<>();
+
+    private RxLogFlightRecorder() {
+        throw new AssertionError("No instances.");
+    }
+
+    static void register(FlightRecorder recorder) {
+        expunge();
+        Reference<FlightRecorder> entry = new WeakReference<>(recorder, collected);
+        recorder.entry = entry;
+        active.put(entry, Boolean.TRUE);
+    }
+
+    static void unregister(FlightRecorder recorder) {
+        Reference<FlightRecorder> entry = recorder.entry;
+        if (entry != null) {
+            recorder.entry = null;
+            entry.clear();
+            active.remove(entry);
+        }
+    }
+
+    /**
+     * @return number of active subscriptions with flight recorder
+     */
+    public static int size() {
+        expunge();
+        return active.size();
+    }
+
+    /**
+     * Logs recorded events of all active subscriptions
+     */
+    public static void dump() {
+        dump(null);
+    }
+
+    /**
+     * Logs recorded events of active subscriptions of given stream
+     * @param tag message of the transformer, null for all
+     */
+    public static void dump(String tag) {
+        expunge();
+        for (Reference<FlightRecorder> entry : active.keySet()) {
+            FlightRecorder recorder = entry.get();
+            if (recorder != null && (tag == null || tag.equals(recorder.msg)) && isEnabled(recorder.msg)) {
+                recorder.dump();
+            }
+        }
+    }
+
+    private static void expunge() {
+        Reference<? extends FlightRecorder> ref;
+        while ((ref = collected.poll()) != null) {
+            active.remove(ref);
+        }
+    }
+
+    private static boolean isEnabled(String tag) {
+        return (RxLogConfig.state.maskFor(tag) & LogFlags.LOG_FLIGHT) != 0;
+    }
+}
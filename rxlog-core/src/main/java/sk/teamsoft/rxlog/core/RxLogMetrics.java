@@ -0,0 +1,79 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Registry of stream metrics recorded by transformers with {@link LogFlags#LOG_METRICS} flag
+ * <p>
+ * Metrics are kept per message (tag), all subscriptions of transformers with the same message
+ * share them. Counters are striped and latencies go to fixed-size histograms, so recording is
+ * cheap and does not allocate
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogMetrics {
+
+    private static final LineFormat METRICS = LineFormat.of("[metrics] %s");
+
+    private static final ConcurrentMap<String, StreamMetrics> registry = new ConcurrentHashMap<>();
+
+    private RxLogMetrics() {
+        throw new AssertionError("No instances.");
+    }
+
+    static StreamMetrics metrics(String tag) {
+        StreamMetrics metrics = registry.get(tag);
+        if (metrics == null) {
+            StreamMetrics created = new StreamMetrics(tag);
+            metrics = registry.putIfAbsent(tag, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @param tag message of the transformer
+     * @return snapshot of metrics of given stream, or null if nothing was recorded for it
+     */
+    public static MetricsSnapshot snapshot(String tag) {
+        StreamMetrics metrics = registry.get(tag);
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * @return snapshots of all streams, sorted by tag
+     */
+    public static Map<String, MetricsSnapshot> snapshot() {
+        Map<String, MetricsSnapshot> snapshots = new TreeMap<>();
+        for (StreamMetrics metrics : registry.values()) {
+            snapshots.put(metrics.tag, metrics.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Logs snapshots of all streams
+     */
+    public static void log() {
+        for (MetricsSnapshot snapshot : snapshot().values()) {
+            print(INFO, METRICS, snapshot);
+        }
+    }
+
+    /**
+     * Resets all counters and histograms, except numbers of active subscriptions
+     */
+    public static void reset() {
+        for (StreamMetrics metrics : registry.values()) {
+            metrics.reset();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Rail statistics of ParallelFlowables logged with {@link LogFlags#LOG_RAILS}
+ * <p>
+ * Item counts and busy time are kept per rail of every subscription. When all rails of a
+ * subscription terminate or are cancelled, the distribution is logged, e.g.
+ * {@code [rails] resize x4 rails items=250/250/260/240 (imbalance 1.08) busy=120/118/400/121ms (imbalance 3.39, slowest rail 2)}.
+ * The last subscription of every stream is kept for on-demand snapshots
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogParallel {
+
+    private static final LineFormat RAILS = LineFormat.of("[rails] %s");
+
+    private static final ConcurrentMap<String, Rails> latest = new ConcurrentHashMap<>();
+
+    private RxLogParallel() {
+        throw new AssertionError("No instances.");
+    }
+
+    static Rails start(String tag, int rails) {
+        Rails r = new Rails(tag, rails);
+        latest.put(tag, r);
+        return r;
+    }
+
+    static void report(Rails rails) {
+        print(INFO, RAILS, rails.snapshot());
+    }
+
+    /**
+     * @param tag message of the transformer
+     * @return snapshot of rails of the last subscription of given stream, or null if there was none
+     */
+    public static ParallelSnapshot snapshot(String tag) {
+        Rails rails = latest.get(tag);
+        return rails != null ? rails.snapshot() : null;
+    }
+
+    /**
+     * @return snapshots of the last subscriptions of all streams, sorted by tag
+     */
+    public static Map<String, ParallelSnapshot> snapshot() {
+        Map<String, ParallelSnapshot> snapshots = new TreeMap<>();
+        for (Rails rails : latest.values()) {
+            snapshots.put(rails.tag, rails.snapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * Logs snapshots of the last subscriptions of all streams
+     */
+    public static void log() {
+        for (ParallelSnapshot snapshot : snapshot().values()) {
+            print(INFO, RAILS, snapshot);
+        }
+    }
+}
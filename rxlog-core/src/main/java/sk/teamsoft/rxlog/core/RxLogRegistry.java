@@ -0,0 +1,176 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogEvent.WARN;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Registry of active subscriptions of transformers with {@link LogFlags#LOG_REGISTRY} flag
+ * <p>
+ * Subscriptions are registered on subscribe and removed on terminal event or dispose. The
+ * registry is a concurrent hash map, so registration contends only within its bin. Optional leak
+ * detection periodically reports subscriptions alive longer than a threshold, and subscriptions
+ * garbage-collected without terminal event or dispose
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogRegistry {
+
+    private static final LineFormat ACTIVE = LineFormat.of("[active] %s");
+    private static final LineFormat LEAK = LineFormat.of("[leak] %s#%s alive for %sms, %s items, subscribed on %s");
+    private static final LineFormat COLLECTED = LineFormat.of("[collected] %s#%s garbage collected without dispose after %sms, %s items");
+
+    private static final long MAX_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ConcurrentMap<Registration, Boolean> active = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<LogSession> collected = new ReferenceQueue<>();
+
+    private static Sweeper sweeper;
+
+    private RxLogRegistry() {
+        throw new AssertionError("No instances.");
+    }
+
+    static Registration register(LogSession session, String tag, long id) {
+        expunge(false);
+        Registration registration = new Registration(session, collected, tag, id);
+        active.put(registration, Boolean.TRUE);
+        return registration;
+    }
+
+    static void unregister(Registration registration) {
+        registration.clear();
+        active.remove(registration);
+    }
+
+    /**
+     * @return number of active subscriptions
+     */
+    public static int size() {
+        expunge(false);
+        return active.size();
+    }
+
+    /**
+     * @return all active subscriptions, the oldest first
+     */
+    public static List<SubscriptionInfo> snapshot() {
+        return snapshot(null);
+    }
+
+    /**
+     * @param tag message of the transformer, null for all
+     * @return active subscriptions of given stream, the oldest first
+     */
+    public static List<SubscriptionInfo> snapshot(String tag) {
+        expunge(false);
+        long now = System.nanoTime();
+        List<SubscriptionInfo> infos = new ArrayList<>();
+        for (Registration r : active.keySet()) {
+            if (tag == null || tag.equals(r.tag)) {
+                infos.add(new SubscriptionInfo(r.tag, r.id, r.thread,
+                        TimeUnit.NANOSECONDS.toMillis(now - r.subscribedAt),
+                        TimeUnit.NANOSECONDS.toMillis(now - r.lastActivityAt()),
+                        r.nexts()));
+            }
+        }
+        Collections.sort(infos, new Comparator<SubscriptionInfo>() {
+            @Override public int compare(SubscriptionInfo a, SubscriptionInfo b) {
+                return a.ageMillis > b.ageMillis ? -1 : (a.ageMillis == b.ageMillis ? 0 : 1);
+            }
+        });
+        return infos;
+    }
+
+    /**
+     * Logs all active subscriptions
+     */
+    public static void log() {
+        for (SubscriptionInfo info : snapshot()) {
+            print(INFO, ACTIVE, info);
+        }
+    }
+
+    /**
+     * Enables periodic leak detection, which reports (once) subscriptions alive longer than given
+     * age, and subscriptions garbage-collected without terminal event or dispose
+     * @param maxAge max age of a subscription, 0 disables leak detection
+     * @param unit   time unit
+     */
+    public static synchronized void setLeakDetection(long maxAge, TimeUnit unit) {
+        if (maxAge < 0) {
+            throw new IllegalArgumentException("maxAge < 0: " + maxAge);
+        }
+        if (sweeper != null) {
+            sweeper.stopped = true;
+            sweeper = null;
+        }
+        if (maxAge > 0) {
+            sweeper = new Sweeper(unit.toNanos(maxAge));
+            sweeper.schedule();
+        }
+    }
+
+    /**
+     * Removes registrations of collected subscriptions
+     * @param report true to log them
+     */
+    private static void expunge(boolean report) {
+        Reference<? extends LogSession> ref;
+        while ((ref = collected.poll()) != null) {
+            Registration r = (Registration) ref;
+            if (active.remove(r) != null && report && isEnabled(r.tag)) {
+                print(WARN, COLLECTED, r.tag, r.id, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - r.subscribedAt), r.nexts());
+            }
+        }
+    }
+
+    private static boolean isEnabled(String tag) {
+        return (RxLogConfig.state.maskFor(tag) & LogFlags.LOG_REGISTRY) != 0;
+    }
+
+    /**
+     * Periodic leak check, runs on {@link LogTimer}
+     */
+    private static final class Sweeper implements Runnable {
+
+        final long maxAgeNanos;
+        volatile boolean stopped;
+
+        Sweeper(long maxAgeNanos) {
+            this.maxAgeNanos = maxAgeNanos;
+        }
+
+        void schedule() {
+            LogTimer.schedule(this, Math.min(maxAgeNanos, MAX_SWEEP_INTERVAL_NANOS));
+        }
+
+        @Override public void run() {
+            if (stopped) {
+                return;
+            }
+            expunge(true);
+            long now = System.nanoTime();
+            for (Registration r : active.keySet()) {
+                long age = now - r.subscribedAt;
+                if (!r.reported && age >= maxAgeNanos && r.get() != null) {
+                    r.reported = true;
+                    if (isEnabled(r.tag)) {
+                        print(WARN, LEAK, r.tag, r.id, TimeUnit.NANOSECONDS.toMillis(age), r.nexts(), r.thread);
+                    }
+                }
+            }
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package sk.teamsoft.rxlog.core;
+
+import static sk.teamsoft.rxlog.core.LogEvent.DEBUG;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Per-subscription onNext sampling state, created from LogOptions of the adapters
+ * <p>
+ * Rx guarantees serialized onNext calls, so the state is not synchronized
+ * @author Dusan Bartos
+ */
+public final class Sampler {
+
+    private static final long SECOND_NANOS = 1000000000L;
+    private static final LineFormat SAMPLED = LineFormat.of("[sampled] %s%s %s of %s items not logged");
+
+    private final int everyNth;
+    private final double maxPerSecond;
+    /** tokens the bucket can hold, at least one, so rates below 1/s still let an item through */
+    private final double capacity;
+    private final long windowNanos;
+
+    private long seen;
+    private long suppressed;
+    private double tokens;
+    private long lastRefill;
+    private long windowStart;
+
+    public Sampler(int everyNth, double maxPerSecond, long windowNanos) {
+        this.everyNth = everyNth;
+        this.maxPerSecond = maxPerSecond;
+        this.capacity = Math.max(1, maxPerSecond);
+        this.windowNanos = windowNanos;
+        this.tokens = capacity;
+    }
+
+    /**
+     * @return true if current item should be logged
+     */
+    public boolean sample() {
+        long index = seen++;
+        if (everyNth > 1 && index % everyNth != 0) {
+            suppressed++;
+            return false;
+        }
+        if (windowNanos > 0 || maxPerSecond > 0) {
+            long now = System.nanoTime();
+            if (windowNanos > 0) {
+                if (index != 0 && now - windowStart < windowNanos) {
+                    suppressed++;
+                    return false;
+                }
+                windowStart = now;
+            }
+            if (maxPerSecond > 0 && !tryAcquire(now)) {
+                suppressed++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tryAcquire(long now) {
+        if (lastRefill != 0) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * maxPerSecond / SECOND_NANOS);
+        }
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Logs number of suppressed items, if any, and resets the counter
+     * @param msg      stream message
+     * @param idSuffix subscription id suffix of the message
+     */
+    public void report(String msg, String idSuffix) {
+        long count = suppressed;
+        if (count > 0) {
+            suppressed = 0;
+            print(DEBUG, SAMPLED, msg, idSuffix, count, seen);
+        }
+    }
+}
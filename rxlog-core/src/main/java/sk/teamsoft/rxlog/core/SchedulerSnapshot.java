@@ -0,0 +1,32 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Immutable snapshot of task metrics of one scheduler and stream tag, see {@link SchedulerStats}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class SchedulerSnapshot {
+
+    /** thread name of the scheduler without sequence number */
+    public final String scheduler;
+    /** tag of the stream, which scheduled the tasks, null for tasks scheduled outside of logging transformers */
+    public final String tag;
+    /** time from scheduling to start of the task */
+    public final HistogramSnapshot queueDelay;
+    /** duration of the task */
+    public final HistogramSnapshot execution;
+
+    SchedulerSnapshot(String scheduler, String tag, HistogramSnapshot queueDelay, HistogramSnapshot execution) {
+        this.scheduler = scheduler;
+        this.tag = tag;
+        this.queueDelay = queueDelay;
+        this.execution = execution;
+    }
+
+    @Override public String toString() {
+        return scheduler
+                + (tag != null ? " " + tag : "")
+                + " | queueDelay: " + queueDelay
+                + " | execution: " + execution;
+    }
+}
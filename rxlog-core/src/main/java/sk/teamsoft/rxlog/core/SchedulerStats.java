@@ -0,0 +1,275 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static sk.teamsoft.rxlog.core.LogEvent.INFO;
+import static sk.teamsoft.rxlog.core.LogOutput.print;
+
+/**
+ * Queueing delay and execution time of tasks run by RxJava schedulers, recorded by the schedule
+ * hooks of the adapters ({@code RxLogSchedulers}, {@code RxLog1Schedulers})
+ * <p>
+ * Every scheduled task is wrapped, the wrapper remembers time of scheduling and the stream tag of
+ * the logging transformer, which emits on the scheduling thread (if any). When the task runs,
+ * time from scheduling to start and duration of the task are recorded into fixed-size
+ * histograms of the scheduler and tag. The hooks do not know the scheduler, it is derived from
+ * the name of the running thread without its sequence number (e.g. {@code RxComputationThreadPool})
+ * <p>
+ * The hooks do not see delays requested by delayed tasks, so their queueing delay includes the
+ * requested delay. Periodic tasks record queueing delay only for the first run
+ * <p>
+ * Thread names are not a closed set (executors wrapped by {@code Schedulers.from} name threads
+ * {@code pool-N-thread-M}, with a new N for every executor), so at most {@value #MAX_SCHEDULERS}
+ * schedulers and {@value #MAX_TAGS} tags per scheduler are tracked. Tasks of any further
+ * scheduler or tag are recorded under {@value #OTHER}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class SchedulerStats {
+
+    private static final LineFormat SCHEDULER = LineFormat.of("[scheduler] %s");
+
+    /** tag of tasks scheduled outside of any logging transformer */
+    private static final String UNTAGGED = "";
+    /** scheduler and tag of tasks over the limits */
+    public static final String OTHER = "(other)";
+    public static final int MAX_SCHEDULERS = 32;
+    public static final int MAX_TAGS = 64;
+    /** returned by {@link #enter(String)} when no hook is installed, {@link #exit(String)} then does nothing */
+    private static final String NOT_ENTERED = new String("");
+
+    private static final ThreadLocal<ThreadState> threadState = new ThreadLocal<ThreadState>() {
+        @Override protected ThreadState initialValue() {
+            return new ThreadState();
+        }
+    };
+
+    /** metrics by scheduler and tag */
+    private static final ConcurrentMap<String, ConcurrentMap<String, TaskMetrics>> registry = new ConcurrentHashMap<>();
+
+    /** number of installed hooks, stream tags are tracked only while some hook is installed */
+    private static volatile int hooks;
+    /**
+     * Same as hooks != 0, checked by {@link #enter(String)} on every event. Not volatile, so
+     * that it costs nothing when no hook is installed, emitting threads may see the change late
+     * and tasks they schedule meanwhile are not tagged
+     */
+    private static boolean tagging;
+
+    private SchedulerStats() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Called by adapters, when their schedule hook is installed
+     */
+    public static synchronized void hookInstalled() {
+        hooks++;
+        tagging = true;
+    }
+
+    /**
+     * Called by adapters, when their schedule hook is removed
+     */
+    public static synchronized void hookUninstalled() {
+        if (hooks > 0) {
+            hooks--;
+        }
+        tagging = hooks != 0;
+    }
+
+    /**
+     * Marks current thread as emitting for given stream, tasks scheduled until {@link #exit(String)}
+     * are tagged with it. Does nothing, unless a hook is installed
+     * @param tag stream tag
+     * @return value to be passed to {@link #exit(String)} in a finally block
+     */
+    public static String enter(String tag) {
+        if (!tagging) {
+            return NOT_ENTERED;
+        }
+        ThreadState state = threadState.get();
+        String outer = state.tag;
+        state.tag = tag;
+        return outer;
+    }
+
+    /**
+     * Restores tag of current thread
+     * @param outer value returned by the matching {@link #enter(String)}
+     */
+    @SuppressWarnings("StringEquality")
+    public static void exit(String outer) {
+        if (outer != NOT_ENTERED) {
+            threadState.get().tag = outer;
+        }
+    }
+
+    /**
+     * @param task scheduled task
+     * @return task, which records its queueing delay and execution time when run
+     */
+    public static Runnable wrap(Runnable task) {
+        String tag = hooks != 0 ? threadState.get().tag : null;
+        return new TimedTask(task, tag != null ? tag : UNTAGGED, System.nanoTime());
+    }
+
+    /**
+     * @return metrics of all schedulers and tags, sorted by scheduler and tag
+     */
+    public static List<SchedulerSnapshot> snapshot() {
+        List<SchedulerSnapshot> snapshots = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<String, TaskMetrics>> scheduler : registry.entrySet()) {
+            for (Map.Entry<String, TaskMetrics> tag : scheduler.getValue().entrySet()) {
+                TaskMetrics metrics = tag.getValue();
+                snapshots.add(new SchedulerSnapshot(scheduler.getKey(), tag.getKey().isEmpty() ? null : tag.getKey(),
+                        metrics.queueDelay.snapshot(), metrics.execution.snapshot()));
+            }
+        }
+        Collections.sort(snapshots, new Comparator<SchedulerSnapshot>() {
+            @Override public int compare(SchedulerSnapshot a, SchedulerSnapshot b) {
+                int c = a.scheduler.compareTo(b.scheduler);
+                if (c != 0) {
+                    return c;
+                }
+                return (a.tag != null ? a.tag : UNTAGGED).compareTo(b.tag != null ? b.tag : UNTAGGED);
+            }
+        });
+        return snapshots;
+    }
+
+    /**
+     * Logs metrics of all schedulers and tags
+     */
+    public static void log() {
+        for (SchedulerSnapshot snapshot : snapshot()) {
+            print(INFO, SCHEDULER, snapshot);
+        }
+    }
+
+    /**
+     * Resets all histograms
+     */
+    public static void reset() {
+        for (ConcurrentMap<String, TaskMetrics> tags : registry.values()) {
+            for (TaskMetrics metrics : tags.values()) {
+                metrics.queueDelay.reset();
+                metrics.execution.reset();
+            }
+        }
+    }
+
+    private static TaskMetrics metrics(ThreadState state, String tag) {
+        if (state.metrics != null && tag.equals(state.metricsTag)) {
+            return state.metrics;
+        }
+        String scheduler = state.scheduler();
+        ConcurrentMap<String, TaskMetrics> tags = registry.get(scheduler);
+        if (tags == null) {
+            // limits are checked without locking, concurrent threads may exceed them by a few entries
+            if (registry.size() >= MAX_SCHEDULERS) {
+                scheduler = OTHER;
+                tags = registry.get(OTHER);
+            }
+            if (tags == null) {
+                ConcurrentMap<String, TaskMetrics> created = new ConcurrentHashMap<>();
+                tags = registry.putIfAbsent(scheduler, created);
+                if (tags == null) {
+                    tags = created;
+                }
+            }
+        }
+        TaskMetrics metrics = tags.get(tag);
+        if (metrics == null) {
+            String key = tags.size() >= MAX_TAGS ? OTHER : tag;
+            metrics = tags.get(key);
+            if (metrics == null) {
+                TaskMetrics created = new TaskMetrics();
+                metrics = tags.putIfAbsent(key, created);
+                if (metrics == null) {
+                    metrics = created;
+                }
+            }
+        }
+        state.metricsTag = tag;
+        state.metrics = metrics;
+        return metrics;
+    }
+
+    /**
+     * @return thread name without trailing sequence number, e.g. RxCachedThreadScheduler-4 -> RxCachedThreadScheduler
+     */
+    static String schedulerOf(String threadName) {
+        int end = threadName.length();
+        while (end > 0 && Character.isDigit(threadName.charAt(end - 1))) {
+            end--;
+        }
+        while (end > 0 && (threadName.charAt(end - 1) == '-' || threadName.charAt(end - 1) == '#')) {
+            end--;
+        }
+        return end > 0 ? threadName.substring(0, end) : threadName;
+    }
+
+    private static final class TaskMetrics {
+
+        final Histogram queueDelay = new Histogram();
+        final Histogram execution = new Histogram();
+    }
+
+    private static final class ThreadState {
+
+        /** tag of the stream emitting on this thread, set between enter and exit */
+        String tag;
+        /** scheduler of this thread, resolved on the first task */
+        String scheduler;
+        /** metrics of the last run task, tasks of a worker usually come from the same stream */
+        String metricsTag;
+        TaskMetrics metrics;
+
+        String scheduler() {
+            String s = scheduler;
+            if (s == null) {
+                s = schedulerOf(Thread.currentThread().getName());
+                scheduler = s;
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Wrapper of one scheduled task
+     */
+    private static final class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final String tag;
+        /** System.nanoTime() of scheduling, 0 after the first run of a periodic task */
+        private long scheduledAt;
+
+        TimedTask(Runnable task, String tag, long scheduledAt) {
+            this.task = task;
+            this.tag = tag;
+            this.scheduledAt = scheduledAt;
+        }
+
+        @Override public void run() {
+            long start = System.nanoTime();
+            TaskMetrics metrics = metrics(threadState.get(), tag);
+            if (scheduledAt != 0) {
+                metrics.queueDelay.record(start - scheduledAt);
+                scheduledAt = 0;
+            }
+            try {
+                task.run();
+            } finally {
+                metrics.execution.record(System.nanoTime() - start);
+            }
+        }
+    }
+}
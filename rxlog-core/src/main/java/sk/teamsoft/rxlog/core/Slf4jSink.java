@@ -0,0 +1,68 @@
+package sk.teamsoft.rxlog.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Writes events to SLF4J, priorities are mapped as VERBOSE - trace, DEBUG - debug, INFO - info,
+ * WARN - warn, ERROR - error
+ * <p>
+ * slf4j-api is not a dependency of rxlog-core, it has to be on the classpath of the application
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class Slf4jSink implements LogSink {
+
+    private final Logger logger;
+
+    public Slf4jSink() {
+        this(LoggerFactory.getLogger(JulSink.DEFAULT_LOGGER));
+    }
+
+    public Slf4jSink(Logger logger) {
+        if (logger == null) {
+            throw new NullPointerException("logger == null");
+        }
+        this.logger = logger;
+    }
+
+    @Override public boolean isLoggable(int priority) {
+        switch (priority) {
+            case LogEvent.ERROR:
+                return logger.isErrorEnabled();
+            case LogEvent.WARN:
+                return logger.isWarnEnabled();
+            case LogEvent.INFO:
+                return logger.isInfoEnabled();
+            case LogEvent.DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return logger.isTraceEnabled();
+        }
+    }
+
+    @Override public void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            switch (event.priority) {
+                case LogEvent.ERROR:
+                    logger.error(event.message());
+                    break;
+                case LogEvent.WARN:
+                    logger.warn(event.message());
+                    break;
+                case LogEvent.INFO:
+                    logger.info(event.message());
+                    break;
+                case LogEvent.DEBUG:
+                    logger.debug(event.message());
+                    break;
+                default:
+                    logger.trace(event.message());
+                    break;
+            }
+        }
+    }
+}
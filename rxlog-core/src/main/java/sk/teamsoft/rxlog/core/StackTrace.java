@@ -0,0 +1,32 @@
+package sk.teamsoft.rxlog.core;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Lazily rendered stack trace argument, starts on a new line of the log line
+ * @author Dusan Bartos
+ */
+final class StackTrace {
+
+    private final Throwable error;
+
+    StackTrace(Throwable error) {
+        this.error = error;
+    }
+
+    @Override public String toString() {
+        StringWriter writer = new StringWriter(1024);
+        writer.append('\n');
+        PrintWriter printer = new PrintWriter(writer, false);
+        error.printStackTrace(printer);
+        printer.flush();
+        StringBuffer buffer = writer.getBuffer();
+        int end = buffer.length();
+        while (end > 1 && Character.isWhitespace(buffer.charAt(end - 1))) {
+            end--;
+        }
+        buffer.setLength(end);
+        return buffer.toString();
+    }
+}
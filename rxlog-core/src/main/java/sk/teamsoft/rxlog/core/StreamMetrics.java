@@ -0,0 +1,45 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Metrics of all subscriptions of one tagged stream
+ * @author Dusan Bartos
+ */
+final class StreamMetrics {
+
+    final String tag;
+
+    final StripedCounter subscribes = new StripedCounter();
+    final StripedCounter nexts = new StripedCounter();
+    final StripedCounter errors = new StripedCounter();
+    final StripedCounter completes = new StripedCounter();
+    final StripedCounter disposes = new StripedCounter();
+    final StripedCounter active = new StripedCounter();
+
+    /** time from subscribe to the first item */
+    final Histogram firstItem = new Histogram();
+    /** time from subscribe to terminate or dispose */
+    final Histogram lifetime = new Histogram();
+    /** time between two consecutive items of one subscription */
+    final Histogram interArrival = new Histogram();
+
+    StreamMetrics(String tag) {
+        this.tag = tag;
+    }
+
+    MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(tag,
+                subscribes.sum(), nexts.sum(), errors.sum(), completes.sum(), disposes.sum(), active.sum(),
+                firstItem.snapshot(), lifetime.snapshot(), interArrival.snapshot());
+    }
+
+    void reset() {
+        subscribes.reset();
+        nexts.reset();
+        errors.reset();
+        completes.reset();
+        disposes.reset();
+        firstItem.reset();
+        lifetime.reset();
+        interArrival.reset();
+    }
+}
@@ -0,0 +1,55 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contention-free counter, updates from different threads go to different padded cells, which
+ * are summed only when read (the same idea as java.util.concurrent.atomic.LongAdder, which is
+ * not available on older Android versions)
+ * @author Dusan Bartos
+ */
+final class StripedCounter {
+
+    /** longs per cell, so that every cell has its own cache line */
+    private static final int PAD = 8;
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PAD);
+
+    void increment() {
+        add(1);
+    }
+
+    void decrement() {
+        add(-1);
+    }
+
+    void add(long x) {
+        cells.getAndAdd(index(), x);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    void reset() {
+        for (int i = 0; i < STRIPES; i++) {
+            cells.set(i * PAD, 0);
+        }
+    }
+
+    private static int index() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & (STRIPES - 1)) * PAD;
+    }
+
+    private static int stripes() {
+        int cpus = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 32));
+        return Integer.highestOneBit(cpus * 2 - 1) << 1;
+    }
+}
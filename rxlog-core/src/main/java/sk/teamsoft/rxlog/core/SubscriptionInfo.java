@@ -0,0 +1,37 @@
+package sk.teamsoft.rxlog.core;
+
+/**
+ * Immutable snapshot of one active subscription, see {@link RxLogRegistry}
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class SubscriptionInfo {
+
+    public final String tag;
+    /** subscription id, same as printed with {@link LogOptions.Builder#subscriptionIds(boolean)} */
+    public final long id;
+    /** thread, on which the subscription was made */
+    public final String thread;
+    /** time since subscribe */
+    public final long ageMillis;
+    /** time since the last item, or since subscribe if there was none */
+    public final long idleMillis;
+    public final long nextCount;
+
+    SubscriptionInfo(String tag, long id, String thread, long ageMillis, long idleMillis, long nextCount) {
+        this.tag = tag;
+        this.id = id;
+        this.thread = thread;
+        this.ageMillis = ageMillis;
+        this.idleMillis = idleMillis;
+        this.nextCount = nextCount;
+    }
+
+    @Override public String toString() {
+        return tag + "#" + id
+                + " age=" + ageMillis + "ms"
+                + " idle=" + idleMillis + "ms"
+                + " next=" + nextCount
+                + " thread=" + thread;
+    }
+}
@@ -0,0 +1,34 @@
+package sk.teamsoft.rxlog.core;
+
+import java.util.List;
+
+import timber.log.Timber;
+
+/**
+ * Writes events to Timber, default sink of RxLog when Timber is on the classpath (Android)
+ * <p>
+ * Lines are formatted by {@link LogEvent#message()} and passed to Timber with no arguments, so
+ * Timber doesn't run {@code String.format}. Timber is a compile-only dependency of the core module,
+ * this class is loaded only when it is present
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class TimberSink implements LogSink {
+
+    /** shared empty arguments, lines are preformatted */
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * @return false if no tree is planted, Timber would discard the line
+     */
+    @Override public boolean isLoggable(int priority) {
+        return Timber.treeCount() > 0;
+    }
+
+    @Override public void write(List<LogEvent> events) {
+        for (int i = 0, size = events.size(); i < size; i++) {
+            LogEvent event = events.get(i);
+            Timber.log(event.priority, event.message(), NO_ARGS);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package sk.teamsoft.rxlog.core;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Detects a subscription, which stays silent (no next/success) longer than the idle timeout
+ * without terminating
+ * <p>
+ * Events only store their timestamp, the timeout armed in {@link LogTimer} is not moved on every
+ * item. When it fires, it reports a stall if the subscription was idle long enough, otherwise it
+ * re-arms itself for the rest of the timeout. A stall is reported once per silent period, and
+ * the next item after it is reported as resume
+ * <p>
+ * The timer reaches the watchdog only through a weak reference, so a subscription abandoned
+ * without terminal event or dispose is not kept alive by its pending timeout. Once it is
+ * collected, the timeout finds the reference cleared and is not re-armed
+ * @author Dusan Bartos
+ */
+final class Watchdog {
+
+    private static final AtomicLongFieldUpdater<Watchdog> LAST_EVENT_AT =
+            AtomicLongFieldUpdater.newUpdater(Watchdog.class, "lastEventAt");
+    private static final AtomicLongFieldUpdater<Watchdog> ITEMS =
+            AtomicLongFieldUpdater.newUpdater(Watchdog.class, "items");
+
+    private final LogSession session;
+    private final EventLogger logger;
+    private final long idleNanos;
+    private final Check check = new Check(this);
+
+    private volatile long lastEventAt;
+    private volatile long items;
+    /** lastEventAt of the reported silent period, 0 if not stalled */
+    private volatile long stalledSince;
+    private volatile boolean stopped;
+    private LogTimer.Timeout timeout;
+
+    Watchdog(LogSession session, EventLogger logger, long idleNanos) {
+        this.session = session;
+        this.logger = logger;
+        this.idleNanos = idleNanos;
+    }
+
+    void start() {
+        lastEventAt = System.nanoTime();
+        arm(idleNanos);
+    }
+
+    /**
+     * Records activity of the subscription, called for every item
+     */
+    void touch() {
+        long now = System.nanoTime();
+        // items are serialized, ordered stores are enough for the timer thread
+        LAST_EVENT_AT.lazySet(this, now);
+        ITEMS.lazySet(this, items + 1);
+        long since = stalledSince;
+        if (since != 0) {
+            stalledSince = 0;
+            logger.resumed(logger.mask(), session, now - since);
+        }
+    }
+
+    synchronized void stop() {
+        stopped = true;
+        LogTimer.Timeout t = timeout;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+
+    void check() {
+        if (stopped) {
+            return;
+        }
+        long last = lastEventAt;
+        long idle = System.nanoTime() - last;
+        if (idle < idleNanos) {
+            arm(idleNanos - idle);
+            return;
+        }
+        if (stalledSince != last) {
+            stalledSince = last;
+            logger.idle(logger.mask(), session, idle, items);
+        }
+        arm(idleNanos);
+    }
+
+    private synchronized void arm(long delayNanos) {
+        if (!stopped) {
+            timeout = LogTimer.schedule(check, delayNanos);
+        }
+    }
+
+    /**
+     * Task armed in the timer, holds the watchdog weakly
+     */
+    private static final class Check implements Runnable {
+
+        private final WeakReference<Watchdog> watchdog;
+
+        Check(Watchdog watchdog) {
+            this.watchdog = new WeakReference<>(watchdog);
+        }
+
+        @Override public void run() {
+            Watchdog w = watchdog.get();
+            if (w != null) {
+                w.check();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Overflow policies are checked with a sink, which holds the drainer in its first write, so the
+ * buffer fills up deterministically
+ * @author Dusan Bartos
+ */
+public class AsyncLogTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final int CAPACITY = 4;
+
+    private LogSink previous;
+    private BlockingSink sink;
+    private LineFormat line;
+
+    @Before public void setUp() {
+        previous = LogOutput.getSink();
+        sink = new BlockingSink();
+        LogOutput.setSink(sink);
+        // events of other tests may still be drained into this sink, they carry a different tag
+        line = LineFormat.of("[async] %s %s").bind(toString());
+    }
+
+    @After public void tearDown() {
+        sink.release.countDown();
+        AsyncLog.stop();
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void dropNewestKeepsBufferedEvents() throws Exception {
+        AsyncLog.start(CAPACITY, AsyncLog.OverflowPolicy.DROP_NEWEST);
+        long dropped = AsyncLog.droppedCount();
+        fillWhileDrainerBlocked();
+
+        LogOutput.print(LogEvent.INFO, line, 5);
+        assertEquals(dropped + 1, AsyncLog.droppedCount());
+
+        sink.release.countDown();
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), sink.awaitItems(5));
+    }
+
+    @Test public void dropOldestMakesRoomForNewEvent() throws Exception {
+        AsyncLog.start(CAPACITY, AsyncLog.OverflowPolicy.DROP_OLDEST);
+        long dropped = AsyncLog.droppedCount();
+        fillWhileDrainerBlocked();
+
+        LogOutput.print(LogEvent.INFO, line, 5);
+        assertEquals(dropped + 1, AsyncLog.droppedCount());
+        assertEquals(CAPACITY, AsyncLog.pendingCount());
+
+        sink.release.countDown();
+        assertEquals(Arrays.asList(0, 2, 3, 4, 5), sink.awaitItems(5));
+    }
+
+    @Test public void blockWaitsForFreeSlot() throws Exception {
+        AsyncLog.start(CAPACITY, AsyncLog.OverflowPolicy.BLOCK);
+        long dropped = AsyncLog.droppedCount();
+        fillWhileDrainerBlocked();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override public void run() {
+                LogOutput.print(LogEvent.INFO, line, 5);
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue("producer should wait for free slot", producer.isAlive());
+
+        sink.release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(producer.isAlive());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), sink.awaitItems(6));
+        assertEquals(dropped, AsyncLog.droppedCount());
+    }
+
+    @Test public void pendingEventsAreWrittenAfterStop() throws Exception {
+        AsyncLog.start(CAPACITY, AsyncLog.OverflowPolicy.DROP_NEWEST);
+        fillWhileDrainerBlocked();
+
+        AsyncLog.stop();
+        assertFalse(AsyncLog.isRunning());
+        sink.release.countDown();
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), sink.awaitItems(5));
+    }
+
+    @Test public void eventsPublishedDuringStopAreNotLost() throws Exception {
+        sink.release.countDown();
+        final int threads = 4;
+        final int events = 5000;
+        AsyncLog.start(threads * events, AsyncLog.OverflowPolicy.DROP_NEWEST);
+        final CountDownLatch started = new CountDownLatch(threads);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread producer = new Thread(new Runnable() {
+                @Override public void run() {
+                    started.countDown();
+                    for (int i = 0; i < events; i++) {
+                        LogOutput.print(LogEvent.INFO, line, i);
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        started.await();
+        AsyncLog.stop();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(threads * events, sink.awaitItems(threads * events).size());
+    }
+
+    @Test public void printIsSynchronousWhenNotRunning() throws Exception {
+        sink.release.countDown();
+        LogOutput.print(LogEvent.INFO, line, 0);
+        assertEquals(Arrays.asList(0), sink.items());
+    }
+
+    /**
+     * Publishes event 0, waits until the drainer is blocked writing it and fills the buffer with
+     * events 1 to {@link #CAPACITY}
+     */
+    private void fillWhileDrainerBlocked() throws InterruptedException {
+        LogOutput.print(LogEvent.INFO, line, 0);
+        assertTrue("drainer did not write", sink.entered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        for (int i = 1; i <= CAPACITY; i++) {
+            LogOutput.print(LogEvent.INFO, line, i);
+        }
+        assertEquals(CAPACITY, AsyncLog.pendingCount());
+    }
+
+    private final class BlockingSink implements LogSink {
+
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        private final List<LogEvent> events = new ArrayList<>();
+
+        @Override public boolean isLoggable(int priority) {
+            return true;
+        }
+
+        @Override public void write(List<LogEvent> batch) {
+            entered.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (this) {
+                events.addAll(batch);
+                notifyAll();
+            }
+        }
+
+        synchronized List<Object> items() {
+            List<Object> items = new ArrayList<>();
+            for (LogEvent event : events) {
+                if (line.tag().equals(event.tag)) {
+                    items.add(event.arg(0));
+                }
+            }
+            return items;
+        }
+
+        synchronized List<Object> awaitItems(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            List<Object> items = items();
+            while (items.size() < count) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+                items = items();
+            }
+            return items;
+        }
+    }
+}
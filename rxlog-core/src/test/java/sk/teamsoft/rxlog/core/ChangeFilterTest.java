@@ -0,0 +1,78 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class ChangeFilterTest {
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(16);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void defaultKeyComparesByEquals() {
+        ChangeFilter filter = LogOptions.DEFAULT.newChangeFilter();
+        assertTrue(filter.changed("a"));
+        assertFalse(filter.changed("a"));
+        assertFalse(filter.changed(new String("a")));
+        assertTrue(filter.changed("b"));
+        assertTrue(filter.changed(null));
+        assertFalse(filter.changed(null));
+        assertTrue(filter.changed("b"));
+    }
+
+    @Test public void defaultKeyTellsItemsWithSameHashApart() {
+        ChangeFilter filter = LogOptions.DEFAULT.newChangeFilter();
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertTrue(filter.changed("Aa"));
+        assertTrue(filter.changed("BB"));
+    }
+
+    @Test public void hashKeyIsOptIn() {
+        ChangeFilter filter = LogOptions.builder().changeKey(ItemKey.HASH_CODE).build().newChangeFilter();
+        assertTrue(filter.changed("Aa"));
+        assertFalse(filter.changed("BB"));
+    }
+
+    @Test public void customKey() {
+        ChangeFilter filter = new ChangeFilter(item -> ((String) item).length());
+        assertTrue(filter.changed("a"));
+        assertFalse(filter.changed("b"));
+        assertTrue(filter.changed("ab"));
+    }
+
+    @Test public void reportLogsDuplicatesSinceLastChange() {
+        ChangeFilter filter = new ChangeFilter(ItemKey.EQUALS);
+        filter.changed(1);
+        filter.changed(1);
+        filter.changed(1);
+        filter.report("state", "#1");
+        filter.changed(2);
+        filter.report("state", "#1");
+
+        List<LogEvent> events = sink.events();
+        assertEquals(1, events.size());
+        assertEquals("unchanged", events.get(0).event);
+        assertEquals("[unchanged] state#1 2 duplicates not logged", events.get(0).message());
+    }
+}
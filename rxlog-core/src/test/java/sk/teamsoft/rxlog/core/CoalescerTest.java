@@ -0,0 +1,108 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class CoalescerTest {
+
+    private static final int MASK = LogFlags.LOG_NEXT_DATA | LogFlags.LOG_COMPLETE;
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(64);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void fullBatchIsLoggedAsOneLine() {
+        LogSession session = session(LogOptions.builder().coalesceCount(3).build());
+        for (int i = 0; i < 7; i++) {
+            session.next(i);
+        }
+        session.complete();
+
+        List<String> lines = lines();
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith("[onNext] coalesced x3 in "));
+        assertTrue(lines.get(0), lines.get(0).endsWith(", first=0, last=2"));
+        assertTrue(lines.get(1), lines.get(1).endsWith(", first=3, last=5"));
+        // terminal event flushes the rest before it is logged
+        assertTrue(lines.get(2), lines.get(2).endsWith(", first=6, last=6"));
+        assertEquals("[onComplete] coalesced", lines.get(3));
+    }
+
+    @Test public void batchIsLoggedWhenWindowElapses() throws Exception {
+        LogSession session = session(LogOptions.builder().coalesce(30, TimeUnit.MILLISECONDS).build());
+        session.next("a");
+        session.next("b");
+        assertEquals(0, sink.size());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sink.size() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith("[onNext] coalesced x2 in "));
+        assertTrue(lines.get(0), lines.get(0).endsWith(", first=a, last=b"));
+    }
+
+    @Test public void disposeFlushesPendingBatch() {
+        LogSession session = session(LogOptions.builder().coalesce(1, TimeUnit.HOURS).build());
+        session.next("a");
+        session.dispose();
+
+        assertEquals(1, lines().size());
+        assertTrue(lines().get(0), lines().get(0).endsWith(", first=a, last=a"));
+    }
+
+    @Test public void emptyBatchLogsNothing() {
+        LogSession session = session(LogOptions.builder().coalesceCount(2).build());
+        session.next("a");
+        session.next("b");
+        session.complete();
+
+        assertEquals(Arrays.asList("onNext", "onComplete"), events());
+    }
+
+    private static LogSession session(LogOptions options) {
+        LogSession session = new EventLogger("coalesced", MASK, options).newSession();
+        session.subscribe();
+        return session;
+    }
+
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            lines.add(event.message());
+        }
+        return lines;
+    }
+
+    private List<String> events() {
+        List<String> events = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            events.add(event.event);
+        }
+        return events;
+    }
+}
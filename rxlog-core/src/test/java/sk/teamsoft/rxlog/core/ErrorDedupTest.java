@@ -0,0 +1,147 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class ErrorDedupTest {
+
+    private static final long WINDOW_MILLIS = 100;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(100);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        ErrorDedup.disable();
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void disabledTraceIsEmpty() {
+        ErrorDedup.disable();
+        assertEquals("", ErrorDedup.trace("disabled", error("boom")));
+        assertEquals("", ErrorDedup.trace("disabled", error("boom")));
+    }
+
+    @Test public void repeatWithinWindowIsSuppressed() {
+        ErrorDedup.enable(1, TimeUnit.MINUTES, 16, 1);
+        long suppressed = ErrorDedup.suppressedCount();
+
+        Object first = ErrorDedup.trace("repeat", error("boom"));
+        assertNotNull(first);
+        assertTrue(first.toString().contains("IllegalStateException: boom"));
+        assertNull(ErrorDedup.trace("repeat", error("boom")));
+        assertNull(ErrorDedup.trace("repeat", error("boom")));
+        assertEquals(suppressed + 2, ErrorDedup.suppressedCount());
+
+        // different message, tag or type is a different signature
+        assertNotNull(ErrorDedup.trace("repeat", error("other")));
+        assertNotNull(ErrorDedup.trace("repeat-other", error("boom")));
+        assertNotNull(ErrorDedup.trace("repeat", new IllegalArgumentException("boom")));
+    }
+
+    @Test public void summaryIsLoggedAfterWindow() throws Exception {
+        ErrorDedup.enable(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 16, 1);
+        ErrorDedup.trace("summary", error("boom"));
+        ErrorDedup.trace("summary", error("boom"));
+        ErrorDedup.trace("summary", error("boom"));
+
+        LogEvent summary = awaitSummary("summary");
+        assertEquals(LogEvent.ERROR, summary.priority);
+        assertEquals("onError", summary.event);
+        assertEquals("boom", summary.arg(1));
+        assertEquals(2L, summary.arg(2));
+        assertTrue((Long) summary.arg(3) >= WINDOW_MILLIS);
+
+        // next window counts again, without logging the first occurrence
+        assertNull(ErrorDedup.trace("summary", error("boom")));
+    }
+
+    @Test public void signatureWithoutRepeatsExpires() throws Exception {
+        ErrorDedup.enable(WINDOW_MILLIS, TimeUnit.MILLISECONDS, 16, 1);
+        assertNotNull(ErrorDedup.trace("expire", error("boom")));
+        assertNull(ErrorDedup.trace("expire", error("boom")));
+        awaitSummary("expire");
+
+        // quiet window removes the signature, the next occurrence is logged in full
+        Thread.sleep(5 * WINDOW_MILLIS);
+        assertNotNull(ErrorDedup.trace("expire", error("boom")));
+        assertEquals(1, summaries("expire").size());
+    }
+
+    @Test public void leastRecentSignatureIsEvicted() {
+        ErrorDedup.enable(1, TimeUnit.MINUTES, 2, 1);
+        assertNotNull(ErrorDedup.trace("a", error("boom")));
+        assertNull(ErrorDedup.trace("a", error("boom")));
+        assertNotNull(ErrorDedup.trace("b", error("boom")));
+
+        // "a" is least recently seen, the third signature evicts it and reports its repeats
+        assertNotNull(ErrorDedup.trace("c", error("boom")));
+        List<LogEvent> summaries = summaries("a");
+        assertEquals(1, summaries.size());
+        assertEquals(1L, summaries.get(0).arg(2));
+
+        assertNotNull(ErrorDedup.trace("a", error("boom")));
+        // "b" was evicted by "a" now, it had no repeats to report
+        assertTrue(summaries("b").isEmpty());
+        assertNull(ErrorDedup.trace("c", error("boom")));
+    }
+
+    @Test public void disableFlushesSummaries() {
+        ErrorDedup.enable(1, TimeUnit.MINUTES, 16, 1);
+        ErrorDedup.trace("flush", error("boom"));
+        ErrorDedup.trace("flush", error("boom"));
+        ErrorDedup.trace("flush-once", error("boom"));
+
+        ErrorDedup.disable();
+        assertEquals(1, summaries("flush").size());
+        assertTrue(summaries("flush-once").isEmpty());
+        assertEquals("", ErrorDedup.trace("flush", error("boom")));
+    }
+
+    /**
+     * Creates all errors with the same top stack frame
+     */
+    private static Throwable error(String message) {
+        return new IllegalStateException(message);
+    }
+
+    private List<LogEvent> summaries(String tag) {
+        List<LogEvent> summaries = new ArrayList<>();
+        for (LogEvent event : sink.events(LogEvent.ERROR)) {
+            if ("onError".equals(event.event) && event.argCount() == 4 && tag.equals(event.arg(0))) {
+                summaries.add(event);
+            }
+        }
+        return summaries;
+    }
+
+    private LogEvent awaitSummary(String tag) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        List<LogEvent> summaries;
+        while ((summaries = summaries(tag)).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, summaries.size());
+        return summaries.get(0);
+    }
+}
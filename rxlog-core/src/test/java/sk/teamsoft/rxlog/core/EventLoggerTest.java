@@ -0,0 +1,94 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class EventLoggerTest {
+
+    private LogSink previous;
+    private LevelSink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new LevelSink();
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void droppedLineDoesNotRenderItem() {
+        sink.minPriority = LogEvent.INFO;
+        final int[] rendered = {0};
+        LogOptions options = LogOptions.builder()
+                .renderer(item -> {
+                    rendered[0]++;
+                    return String.valueOf(item);
+                })
+                .build();
+        LogSession session = new EventLogger("gate", LogFlags.LOG_NEXT_DATA | LogFlags.LOG_COMPLETE, options).newSession();
+        session.subscribe();
+        session.next("item");
+        session.complete();
+
+        assertEquals(0, rendered[0]);
+        assertEquals(1, sink.events.size());
+        assertEquals("onComplete", sink.events.get(0).event);
+    }
+
+    @Test public void droppedLineDoesNotHideThreadHop() {
+        sink.minPriority = LogEvent.INFO;
+        LogOptions options = LogOptions.builder().threadHopsOnly(true).build();
+        LogSession session = new EventLogger("hops", LogFlags.LOG_NEXT_DATA | LogFlags.LOG_COMPLETE, options).newSession();
+        session.subscribe();
+        // debug line is dropped, so it must not take the thread as already shown
+        session.next("item");
+        session.complete();
+
+        assertEquals(1, sink.events.size());
+        assertTrue(sink.events.get(0).message(), sink.events.get(0).message().endsWith(LineFormat.threadSuffix()));
+    }
+
+    @Test public void printedLinesShowOnlyThreadHops() {
+        sink.minPriority = LogEvent.VERBOSE;
+        LogOptions options = LogOptions.builder().threadHopsOnly(true).build();
+        LogSession session = new EventLogger("hops", LogFlags.LOG_NEXT_DATA | LogFlags.LOG_COMPLETE, options).newSession();
+        session.subscribe();
+        session.next("item");
+        session.complete();
+
+        assertEquals(2, sink.events.size());
+        assertTrue(sink.events.get(0).message().endsWith(LineFormat.threadSuffix()));
+        assertEquals("[onComplete] hops", sink.events.get(1).message());
+    }
+
+    private static final class LevelSink implements LogSink {
+
+        final List<LogEvent> events = new ArrayList<>();
+        int minPriority;
+
+        @Override public boolean isLoggable(int priority) {
+            return priority >= minPriority;
+        }
+
+        @Override public void write(List<LogEvent> batch) {
+            for (LogEvent event : batch) {
+                if (isLoggable(event.priority)) {
+                    events.add(event);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class FlightRecorderTest {
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(1024);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void dumpLogsLastEventsOldestFirst() {
+        FlightRecorder recorder = recorder(4);
+        for (int i = 0; i < 10; i++) {
+            recorder.recordItem(JournalWriter.NEXT, i);
+        }
+        recorder.recordError(new IllegalStateException("boom"));
+        recorder.dump();
+
+        List<String> lines = lines();
+        assertEquals("[flight] test last 4 of 11 events", lines.get(0));
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(1), lines.get(1).contains("onNext 7"));
+        assertTrue(lines.get(3), lines.get(3).contains("onNext 9"));
+        assertTrue(lines.get(4), lines.get(4).contains("onError - boom"));
+    }
+
+    @Test public void itemsAreNotKeptAlive() {
+        FlightRecorder recorder = recorder(4);
+        recorder.recordItem(JournalWriter.NEXT, new Object() {
+            @Override public String toString() {
+                return "item";
+            }
+        });
+        String line = null;
+        for (int i = 0; i < 20 && (line == null || !line.contains("<collected>")); i++) {
+            System.gc();
+            sink.clear();
+            recorder.dump();
+            line = lines().get(1);
+        }
+        assertTrue(line, line.contains("onNext <collected>"));
+    }
+
+    @Test public void concurrentWritersFillTheRing() throws Exception {
+        final FlightRecorder recorder = recorder(64);
+        final int events = 10000;
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread writer = new Thread(new Runnable() {
+                @Override public void run() {
+                    for (int i = 0; i < events; i++) {
+                        recorder.recordRequest(i);
+                    }
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        recorder.dump();
+
+        List<String> lines = lines();
+        assertEquals("[flight] test last 64 of 40000 events", lines.get(0));
+        assertEquals(65, lines.size());
+    }
+
+    private static FlightRecorder recorder(int events) {
+        return new FlightRecorder("test", "", LogOptions.builder().flightRecorder(events).build());
+    }
+
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            lines.add(event.message());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,92 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class HistogramTest {
+
+    /** relative width of a bucket, given by 8 sub-buckets per power of two */
+    private static final double PRECISION = 1.0 / Histogram.SUB_COUNT;
+
+    @Test public void smallValuesHaveExactBuckets() {
+        for (int i = 0; i < Histogram.SUB_COUNT; i++) {
+            assertEquals(i, Histogram.indexOf(i));
+            assertEquals(i, Histogram.upperBoundOf(i));
+        }
+    }
+
+    @Test public void bucketsAreContiguous() {
+        for (int i = 1; i < Histogram.BUCKETS; i++) {
+            long lower = Histogram.upperBoundOf(i - 1) + 1;
+            assertEquals("lower bound of bucket " + i, i, Histogram.indexOf(lower));
+            assertEquals("upper bound of bucket " + i, i, Histogram.indexOf(Histogram.upperBoundOf(i)));
+        }
+        assertEquals(Histogram.MAX_VALUE, Histogram.upperBoundOf(Histogram.BUCKETS - 1));
+    }
+
+    @Test public void upperBoundIsWithinPrecision() {
+        for (long value = 1; value > 0 && value <= Histogram.MAX_VALUE; value = value * 3 + 1) {
+            long upper = Histogram.upperBoundOf(Histogram.indexOf(value));
+            assertTrue("value " + value + " above " + upper, value <= upper);
+            assertTrue("value " + value + " too far from " + upper, upper - value <= value * PRECISION);
+        }
+    }
+
+    @Test public void outOfRangeValuesAreClamped() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.count());
+        assertEquals(Histogram.MAX_VALUE, snapshot.max());
+        assertEquals(0, snapshot.percentile(50));
+        assertEquals(Histogram.MAX_VALUE, snapshot.percentile(100));
+    }
+
+    @Test public void percentilesOfUniformValues() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1000, snapshot.max());
+        assertEquals(500.5, snapshot.mean(), 0);
+        assertEquals(1, snapshot.percentile(0));
+        assertPercentile(500, snapshot.percentile(50));
+        assertPercentile(900, snapshot.percentile(90));
+        assertPercentile(990, snapshot.percentile(99));
+        // never above max, even if the bucket is wider
+        assertEquals(1000, snapshot.percentile(100));
+        assertEquals(1000, snapshot.percentile(200));
+    }
+
+    @Test public void emptySnapshot() {
+        HistogramSnapshot snapshot = new Histogram().snapshot();
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.max());
+        assertEquals(0, snapshot.mean(), 0);
+        assertEquals(0, snapshot.percentile(99));
+    }
+
+    @Test public void resetClearsValues() {
+        Histogram histogram = new Histogram();
+        histogram.record(100);
+        histogram.reset();
+        histogram.record(3);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1, snapshot.count());
+        assertEquals(3, snapshot.max());
+        assertEquals(3, snapshot.percentile(100));
+    }
+
+    private static void assertPercentile(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected * (1 + PRECISION));
+    }
+}
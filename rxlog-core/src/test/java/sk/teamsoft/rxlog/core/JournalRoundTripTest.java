@@ -0,0 +1,172 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Events written by {@link JournalWriter} read back by {@link JournalDecoder}
+ * @author Dusan Bartos
+ */
+public class JournalRoundTripTest {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    @After public void tearDown() throws IOException {
+        EventJournal.close();
+    }
+
+    @Test public void eventsOfLoggerAreDecoded() throws Exception {
+        File file = folder.newFile("rx.journal");
+        EventJournal.open(file, 1024);
+        assertTrue(EventJournal.isOpen());
+
+        EventLogger logger = new EventLogger("stream", LogFlags.LOG_ALL, LogOptions.DEFAULT);
+        LogSession session = logger.newSession();
+        Object item = new Object();
+        session.subscribe();
+        session.next("abc");
+        session.next(Arrays.asList(1, 2, 3, 4));
+        session.next(new int[5]);
+        session.next(Collections.singletonMap("k", "v"));
+        session.next(item);
+        session.error(new IllegalStateException("boom"));
+        assertEquals(7, EventJournal.writtenCount());
+        EventJournal.close();
+        assertFalse(EventJournal.isOpen());
+
+        List<JournalDecoder.Entry> entries = JournalDecoder.read(file);
+        assertEquals(7, entries.size());
+        String thread = Thread.currentThread().getName();
+        for (int i = 0; i < entries.size(); i++) {
+            JournalDecoder.Entry entry = entries.get(i);
+            assertEquals(i, entry.sequence);
+            assertEquals("stream", entry.stream);
+            assertEquals(thread, entry.thread);
+            assertTrue(i == 0 || entry.nanos >= entries.get(i - 1).nanos);
+        }
+        assertEquals("subscribe", entries.get(0).event);
+        assertLength(3, entries.get(1));
+        assertLength(4, entries.get(2));
+        assertLength(5, entries.get(3));
+        assertLength(1, entries.get(4));
+
+        JournalDecoder.Entry identity = entries.get(5);
+        assertEquals("onNext", identity.event);
+        assertFalse(identity.payloadIsLength);
+        assertEquals(System.identityHashCode(item), identity.payload);
+        assertTrue(identity.toString().contains(" identity=" + Integer.toHexString(System.identityHashCode(item))));
+
+        JournalDecoder.Entry error = entries.get(6);
+        assertEquals("onError", error.event);
+        assertTrue(error.toString().contains("[onError] stream - java.lang.IllegalStateException [Thread:" + thread + "]"));
+    }
+
+    @Test public void closedWriterIsNotRetainedByThreadsOrLoggers() throws Exception {
+        File file = folder.newFile("retained.journal");
+        EventJournal.open(file, 1024);
+        EventLogger logger = new EventLogger("retained", LogFlags.LOG_ALL, LogOptions.DEFAULT);
+        logger.newSession().subscribe();
+        WeakReference<JournalWriter> writer = new WeakReference<>(EventJournal.writer);
+        EventJournal.close();
+
+        for (int i = 0; i < 50 && writer.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(writer.get());
+        // logger still writes into a reopened journal under the new dictionary ids
+        EventJournal.open(file, 1024);
+        logger.newSession().subscribe();
+        EventJournal.close();
+        List<JournalDecoder.Entry> entries = JournalDecoder.read(file);
+        assertEquals(1, entries.size());
+        assertEquals("retained", entries.get(0).stream);
+        assertEquals(Thread.currentThread().getName(), entries.get(0).thread);
+    }
+
+    @Test public void fullJournalKeepsNewestRecords() throws Exception {
+        File file = folder.newFile("ring.journal");
+        JournalWriter writer = new JournalWriter(file, EventJournal.dictionaryOf(file),
+                JournalWriter.HEADER_SIZE + 4 * JournalWriter.RECORD_SIZE);
+        int stream = writer.intern("ring");
+        for (int i = 0; i < 10; i++) {
+            writer.write(stream, JournalWriter.REQUEST, i);
+        }
+        assertEquals(10, writer.written());
+        writer.close();
+
+        List<JournalDecoder.Entry> entries = JournalDecoder.read(file);
+        assertEquals(4, entries.size());
+        for (int i = 0; i < 4; i++) {
+            JournalDecoder.Entry entry = entries.get(i);
+            assertEquals(6 + i, entry.sequence);
+            assertEquals("request", entry.event);
+            assertEquals(6 + i, entry.payload);
+            assertTrue(entry.toString().contains("[request] ring n=" + (6 + i)));
+        }
+    }
+
+    @Test public void missingDictionaryShowsIds() throws Exception {
+        File file = folder.newFile("nodict.journal");
+        JournalWriter writer = new JournalWriter(file, EventJournal.dictionaryOf(file), 1024);
+        writer.write(writer.intern("stream"), JournalWriter.COMPLETE, 0);
+        writer.close();
+        assertTrue(EventJournal.dictionaryOf(file).delete());
+
+        List<JournalDecoder.Entry> entries = JournalDecoder.read(file);
+        assertEquals(1, entries.size());
+        assertEquals("onComplete", entries.get(0).event);
+        assertTrue(entries.get(0).stream.startsWith("#"));
+    }
+
+    @Test public void emptyJournalHasNoEntries() throws Exception {
+        File file = folder.newFile("empty.journal");
+        new JournalWriter(file, EventJournal.dictionaryOf(file), 1024).close();
+        assertTrue(JournalDecoder.read(file).isEmpty());
+    }
+
+    @Test public void otherFileIsRejected() throws Exception {
+        File file = folder.newFile("other.journal");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[JournalWriter.HEADER_SIZE]);
+        } finally {
+            out.close();
+        }
+        try {
+            JournalDecoder.read(file);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("not an RxLog journal"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void journalWithoutSlotIsRejected() throws Exception {
+        File file = folder.newFile("small.journal");
+        EventJournal.open(file, JournalWriter.HEADER_SIZE);
+    }
+
+    private static void assertLength(long expected, JournalDecoder.Entry entry) {
+        assertEquals("onNext", entry.event);
+        assertTrue(entry.payloadIsLength);
+        assertEquals(expected, entry.payload);
+        assertTrue(entry.toString().contains(" size=" + expected));
+    }
+}
@@ -0,0 +1,101 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class LogTimerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @Test public void taskRunsAfterDelay() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicLong ranAt = new AtomicLong();
+        long delay = TimeUnit.MILLISECONDS.toNanos(50);
+        long start = System.nanoTime();
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                ranAt.set(System.nanoTime());
+                done.countDown();
+            }
+        }, delay);
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("ran too early", ranAt.get() - start >= delay);
+    }
+
+    @Test public void tasksRunInDeadlineOrder() throws Exception {
+        final CountDownLatch done = new CountDownLatch(2);
+        final AtomicBoolean earlyFirst = new AtomicBoolean();
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                done.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(100));
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                earlyFirst.set(done.getCount() == 2);
+                done.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(earlyFirst.get());
+    }
+
+    @Test public void delayLongerThanWheelRevolution() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        // wheel of 512 ticks turns in 5.12s
+        long delay = 512 * LogTimer.TICK_NANOS + TimeUnit.MILLISECONDS.toNanos(100);
+        long start = System.nanoTime();
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                done.countDown();
+            }
+        }, delay);
+        assertTrue(done.await(TimeUnit.NANOSECONDS.toSeconds(delay) + TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue("ran too early", System.nanoTime() - start >= delay);
+    }
+
+    @Test public void cancelledTaskDoesNotRun() throws Exception {
+        final AtomicBoolean ran = new AtomicBoolean();
+        LogTimer.Timeout timeout = LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                ran.set(true);
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(30));
+        timeout.cancel();
+
+        // a later task runs once the cancelled one would have expired
+        final CountDownLatch after = new CountDownLatch(1);
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                after.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(80));
+        assertTrue(after.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    @Test public void failingTaskDoesNotStopTimer() throws Exception {
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                throw new IllegalStateException("failing task");
+            }
+        }, 0);
+        final CountDownLatch done = new CountDownLatch(1);
+        LogTimer.schedule(new Runnable() {
+            @Override public void run() {
+                done.countDown();
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(30));
+        assertTrue(done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,41 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class ParallelSnapshotTest {
+
+    @Test public void imbalanceIsSkewOfExtremeRails() {
+        ParallelSnapshot snapshot = snapshot(new long[]{250, 250, 260, 240}, new long[]{120, 118, 400, 121});
+        assertEquals(260.0 / 240, snapshot.itemImbalance(), 1e-9);
+        assertEquals(400.0 / 118, snapshot.busyImbalance(), 1e-9);
+        assertEquals(2, snapshot.slowestRail());
+    }
+
+    @Test public void starvedRailIsInfiniteImbalance() {
+        ParallelSnapshot snapshot = snapshot(new long[]{0, 100, 100, 100}, new long[]{0, 10, 10, 10});
+        assertTrue(Double.isInfinite(snapshot.itemImbalance()));
+        assertTrue(snapshot.toString(), snapshot.toString().contains("items=0/100/100/100 (imbalance inf)"));
+    }
+
+    @Test public void idleRailsAreBalanced() {
+        ParallelSnapshot snapshot = snapshot(new long[]{0, 0}, new long[]{0, 0});
+        assertEquals(1, snapshot.itemImbalance(), 0);
+        assertEquals(1, snapshot.busyImbalance(), 0);
+    }
+
+    @Test public void evenRails() {
+        ParallelSnapshot snapshot = snapshot(new long[]{5, 5, 5}, new long[]{7, 7, 7});
+        assertEquals("resize x3 rails items=5/5/5 (imbalance 1.0) busy=0/0/0ms (imbalance 1.0, slowest rail 0)",
+                snapshot.toString());
+    }
+
+    private static ParallelSnapshot snapshot(long[] items, long[] busy) {
+        return new ParallelSnapshot("resize", items, busy, 0);
+    }
+}
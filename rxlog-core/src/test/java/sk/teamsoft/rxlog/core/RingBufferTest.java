@@ -0,0 +1,93 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class RingBufferTest {
+
+    private static final LineFormat LINE = LineFormat.of("[test] %s");
+
+    @Test public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new RingBuffer(0).capacity());
+        assertEquals(2, new RingBuffer(2).capacity());
+        assertEquals(4, new RingBuffer(3).capacity());
+        assertEquals(1024, new RingBuffer(1000).capacity());
+    }
+
+    @Test public void claimFailsWhenFull() {
+        RingBuffer buffer = new RingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            offer(buffer, i);
+        }
+        assertEquals(4, buffer.size());
+        assertNull(buffer.claim());
+    }
+
+    @Test public void pollReturnsRecordsInPublishOrder() {
+        RingBuffer buffer = new RingBuffer(4);
+        offer(buffer, 0);
+        offer(buffer, 1);
+        offer(buffer, 2);
+        LogRecord record = new LogRecord();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buffer.poll(record));
+            assertEquals(i, record.arg0);
+            assertEquals(LogEvent.INFO, record.priority);
+        }
+        assertFalse(buffer.poll(record));
+        assertEquals(0, buffer.size());
+    }
+
+    @Test public void claimedRecordIsNotPolledBeforePublish() {
+        RingBuffer buffer = new RingBuffer(4);
+        LogRecord claimed = buffer.claim();
+        assertNotNull(claimed);
+        assertFalse(buffer.poll(null));
+        claimed.set(LogEvent.INFO, 0, "main", LINE, 0, null, null, null, null);
+        buffer.publish(claimed);
+        assertTrue(buffer.poll(null));
+    }
+
+    @Test public void pollFreesSlotForProducers() {
+        RingBuffer buffer = new RingBuffer(2);
+        LogRecord record = new LogRecord();
+        // several laps around the ring
+        for (int i = 0; i < 10; i++) {
+            offer(buffer, i);
+            offer(buffer, i + 100);
+            assertNull(buffer.claim());
+            assertTrue(buffer.poll(null));
+            offer(buffer, i + 200);
+            assertTrue(buffer.poll(record));
+            assertEquals(i + 100, record.arg0);
+            assertTrue(buffer.poll(record));
+            assertEquals(i + 200, record.arg0);
+        }
+    }
+
+    @Test public void polledSlotIsCleared() {
+        RingBuffer buffer = new RingBuffer(2);
+        offer(buffer, "item");
+        LogRecord copy = new LogRecord();
+        assertTrue(buffer.poll(copy));
+        assertEquals("item", copy.arg0);
+        LogRecord reused = buffer.claim();
+        assertNull(reused.arg0);
+        assertNull(reused.format);
+    }
+
+    private static void offer(RingBuffer buffer, Object arg) {
+        LogRecord record = buffer.claim();
+        assertNotNull("buffer full", record);
+        record.set(LogEvent.INFO, 0, "main", LINE, arg, null, null, null, null);
+        buffer.publish(record);
+    }
+}
@@ -0,0 +1,98 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class RxLogConfigTest {
+
+    private static final int MASK = LogFlags.LOG_SUBSCRIBE | LogFlags.LOG_NEXT_DATA | LogFlags.LOG_ERROR | LogFlags.LOG_COMPLETE;
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(64);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        RxLogConfig.reset();
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void killSwitchDisablesAllEvents() {
+        EventLogger logger = new EventLogger("switched", MASK, LogOptions.DEFAULT);
+        assertTrue(logger.isActive());
+
+        RxLogConfig.setEnabled(false);
+        assertFalse(logger.isActive());
+        run(logger);
+        assertEquals(0, sink.size());
+
+        RxLogConfig.setEnabled(true);
+        assertTrue(logger.isActive());
+    }
+
+    @Test public void minPriorityFiltersEvents() {
+        RxLogConfig.setMinPriority(LogEvent.INFO);
+        run(new EventLogger("filtered", MASK, LogOptions.DEFAULT));
+
+        assertEquals(Arrays.asList("onComplete"), events());
+    }
+
+    @Test public void tagOverrideTakesPrecedence() {
+        RxLogConfig.setEventMask(0);
+        RxLogConfig.setTagEventMask("chosen", LogFlags.LOG_NEXT_DATA);
+        run(new EventLogger("chosen", MASK, LogOptions.DEFAULT));
+        run(new EventLogger("other", MASK, LogOptions.DEFAULT));
+
+        assertEquals(Arrays.asList("onNext"), events());
+
+        RxLogConfig.clearTag("chosen");
+        assertFalse(new EventLogger("chosen", MASK, LogOptions.DEFAULT).isActive());
+    }
+
+    @Test public void tagMinPriorityKeepsGlobalEventMask() {
+        RxLogConfig.setEventMask(LogFlags.LOG_NEXT_DATA | LogFlags.LOG_COMPLETE);
+        RxLogConfig.setTagMinPriority("quiet", LogEvent.INFO);
+        run(new EventLogger("quiet", MASK, LogOptions.DEFAULT));
+
+        assertEquals(Arrays.asList("onComplete"), events());
+    }
+
+    @Test public void transformerMaskIsNotWidened() {
+        run(new EventLogger("narrow", LogFlags.LOG_COMPLETE, LogOptions.DEFAULT));
+
+        assertEquals(Arrays.asList("onComplete"), events());
+    }
+
+    private static void run(EventLogger logger) {
+        LogSession session = logger.newSession();
+        session.subscribe();
+        session.next("item");
+        session.terminate();
+        session.complete();
+    }
+
+    private List<String> events() {
+        List<String> events = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            events.add(event.event);
+        }
+        return events;
+    }
+}
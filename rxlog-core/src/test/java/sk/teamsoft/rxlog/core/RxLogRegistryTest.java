@@ -0,0 +1,76 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class RxLogRegistryTest {
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(64);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        RxLogRegistry.setLeakDetection(0, TimeUnit.MILLISECONDS);
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void subscriptionIsRegisteredUntilTerminated() {
+        EventLogger logger = new EventLogger("registered", LogFlags.LOG_REGISTRY, LogOptions.DEFAULT);
+        LogSession completed = logger.newSession();
+        LogSession disposed = logger.newSession();
+        completed.subscribe();
+        disposed.subscribe();
+        completed.next("a");
+        completed.next("b");
+
+        List<SubscriptionInfo> active = RxLogRegistry.snapshot("registered");
+        assertEquals(2, active.size());
+        long items = active.get(0).nextCount + active.get(1).nextCount;
+        assertEquals(2, items);
+
+        completed.complete();
+        assertEquals(1, RxLogRegistry.snapshot("registered").size());
+        disposed.dispose();
+        assertEquals(0, RxLogRegistry.snapshot("registered").size());
+    }
+
+    @Test public void streamsWithoutFlagAreNotRegistered() {
+        LogSession session = new EventLogger("unregistered", LogFlags.LOG_NEXT_DATA, LogOptions.DEFAULT).newSession();
+        session.subscribe();
+
+        assertEquals(0, RxLogRegistry.snapshot("unregistered").size());
+        session.dispose();
+    }
+
+    @Test public void oldSubscriptionIsReportedAsLeak() throws Exception {
+        LogSession session = new EventLogger("leaking", LogFlags.LOG_REGISTRY, LogOptions.DEFAULT).newSession();
+        session.subscribe();
+        RxLogRegistry.setLeakDetection(20, TimeUnit.MILLISECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sink.events(LogEvent.WARN).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        session.dispose();
+
+        List<LogEvent> warnings = sink.events(LogEvent.WARN);
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).message(), warnings.get(0).message().startsWith("[leak] leaking#"));
+    }
+}
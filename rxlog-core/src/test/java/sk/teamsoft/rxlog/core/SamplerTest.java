@@ -0,0 +1,81 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class SamplerTest {
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(16);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void everyNthItemIsSampled() {
+        Sampler sampler = new Sampler(3, 0, 0);
+        for (int i = 0; i < 9; i++) {
+            assertEquals("item " + i, i % 3 == 0, sampler.sample());
+        }
+    }
+
+    @Test public void rateBelowOnePerSecondLetsFirstItemThrough() {
+        Sampler sampler = new Sampler(1, 0.5, 0);
+        assertTrue(sampler.sample());
+        for (int i = 0; i < 10; i++) {
+            assertFalse(sampler.sample());
+        }
+    }
+
+    @Test public void rateLimitAllowsBurstOfRate() {
+        Sampler sampler = new Sampler(1, 5, 0);
+        int sampled = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        // bucket starts full, refill during the loop is far below one token
+        assertEquals(5, sampled);
+    }
+
+    @Test public void windowLetsOneItemThrough() throws Exception {
+        Sampler sampler = new Sampler(1, 0, TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(sampler.sample());
+        assertFalse(sampler.sample());
+        Thread.sleep(60);
+        assertTrue(sampler.sample());
+    }
+
+    @Test public void reportLogsSuppressedCountOnce() {
+        Sampler sampler = new Sampler(2, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            sampler.sample();
+        }
+        sampler.report("stream", "");
+        sampler.report("stream", "");
+
+        List<LogEvent> events = sink.events();
+        assertEquals(1, events.size());
+        assertEquals("sampled", events.get(0).event);
+        assertEquals("[sampled] stream 2 of 5 items not logged", events.get(0).message());
+    }
+}
@@ -0,0 +1,75 @@
+package sk.teamsoft.rxlog.core;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class SchedulerStatsTest {
+
+    @Test public void schedulerIsThreadNameWithoutSequence() {
+        assertEquals("RxComputationThreadPool", SchedulerStats.schedulerOf("RxComputationThreadPool-3"));
+        assertEquals("RxCachedThreadScheduler", SchedulerStats.schedulerOf("RxCachedThreadScheduler-12"));
+        assertEquals("pool-2-thread", SchedulerStats.schedulerOf("pool-2-thread-1"));
+        assertEquals("main", SchedulerStats.schedulerOf("main"));
+    }
+
+    @Test public void tasksAreTaggedOnlyWhileHookIsInstalled() throws Exception {
+        String outer = SchedulerStats.enter("untracked");
+        try {
+            run("tag-untracked", SchedulerStats.wrap(noop()));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+        SchedulerStats.hookInstalled();
+        try {
+            outer = SchedulerStats.enter("tracked");
+            try {
+                run("tag-tracked", SchedulerStats.wrap(noop()));
+            } finally {
+                SchedulerStats.exit(outer);
+            }
+        } finally {
+            SchedulerStats.hookUninstalled();
+        }
+        Set<String> tags = new HashSet<>();
+        for (SchedulerSnapshot snapshot : SchedulerStats.snapshot()) {
+            if (snapshot.scheduler.startsWith("tag-")) {
+                tags.add(snapshot.scheduler + "/" + snapshot.tag);
+            }
+        }
+        assertTrue(tags.toString(), tags.contains("tag-tracked/tracked"));
+        assertTrue(tags.toString(), tags.contains("tag-untracked/null"));
+    }
+
+    @Test public void registryIsBounded() throws Exception {
+        for (int i = 0; i < SchedulerStats.MAX_SCHEDULERS + 8; i++) {
+            run("pool-" + i + "-thread-1", SchedulerStats.wrap(noop()));
+        }
+        Set<String> schedulers = new HashSet<>();
+        for (SchedulerSnapshot snapshot : SchedulerStats.snapshot()) {
+            schedulers.add(snapshot.scheduler);
+        }
+        assertTrue(schedulers.toString(), schedulers.size() <= SchedulerStats.MAX_SCHEDULERS + 1);
+        assertTrue(schedulers.toString(), schedulers.contains(SchedulerStats.OTHER));
+    }
+
+    private static Runnable noop() {
+        return new Runnable() {
+            @Override public void run() {
+            }
+        };
+    }
+
+    private static void run(String threadName, Runnable task) throws InterruptedException {
+        Thread thread = new Thread(task, threadName);
+        thread.start();
+        thread.join();
+    }
+}
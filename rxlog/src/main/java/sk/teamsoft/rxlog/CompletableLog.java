@@ -0,0 +1,74 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.CompletableSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Completable operator, which logs all lifecycle events of the stream from a single observer
+ * @author Dusan Bartos
+ */
+final class CompletableLog extends Completable {
+
+    private final CompletableSource source;
+    private final EventLogger logger;
+
+    CompletableLog(CompletableSource source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override protected void subscribeActual(CompletableObserver observer) {
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(new LogObserver(observer, logger));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+
+    static final class LogObserver implements CompletableObserver, Disposable {
+
+        private final CompletableObserver actual;
+        private final LogSession session;
+
+        private Disposable d;
+
+        LogObserver(CompletableObserver actual, EventLogger logger) {
+            this.actual = actual;
+            this.session = logger.newSession();
+        }
+
+        @Override public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(this.d, d)) {
+                this.d = d;
+                session.subscribe();
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override public void onError(Throwable e) {
+            session.error(e);
+            actual.onError(e);
+        }
+
+        @Override public void onComplete() {
+            session.completeOnThread();
+            actual.onComplete();
+        }
+
+        @Override public void dispose() {
+            session.dispose();
+            d.dispose();
+        }
+
+        @Override public boolean isDisposed() {
+            return d.isDisposed();
+        }
+    }
+}
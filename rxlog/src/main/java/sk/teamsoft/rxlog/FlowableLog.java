@@ -0,0 +1,118 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.Flowable;
+import io.reactivex.internal.subscribers.BasicFuseableSubscriber;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Flowable operator, which logs all lifecycle events of the stream from a single subscriber
+ * @author Dusan Bartos
+ */
+final class FlowableLog<T> extends Flowable<T> {
+
+    private final Publisher<T> source;
+    private final EventLogger logger;
+
+    FlowableLog(Publisher<T> source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override protected void subscribeActual(Subscriber<? super T> s) {
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(new LogSubscriber<>(s, logger));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+
+    static final class LogSubscriber<T> extends BasicFuseableSubscriber<T, T> {
+
+        private final LogSession session;
+
+        LogSubscriber(Subscriber<? super T> actual, EventLogger logger) {
+            this(actual, logger.newSession());
+        }
+
+        LogSubscriber(Subscriber<? super T> actual, LogSession session) {
+            super(actual);
+            this.session = session;
+        }
+
+        @Override protected boolean beforeDownstream() {
+            session.subscribe();
+            return true;
+        }
+
+        @Override public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (sourceMode != NONE) {
+                actual.onNext(null);
+                return;
+            }
+            session.next(t);
+            long start = session.downstreamStart();
+            String outer = session.enterTag();
+            try {
+                actual.onNext(t);
+            } finally {
+                session.exitTag(outer);
+            }
+            if (start != 0) {
+                session.downstreamEnd(start);
+            }
+        }
+
+        @Override public void onError(Throwable t) {
+            if (!done) {
+                session.terminate();
+                session.error(t);
+            }
+            super.onError(t);
+        }
+
+        @Override public void onComplete() {
+            if (!done) {
+                session.terminate();
+                session.complete();
+            }
+            super.onComplete();
+        }
+
+        @Override public void request(long n) {
+            session.request(n);
+            super.request(n);
+        }
+
+        @Override public void cancel() {
+            session.cancel();
+            super.cancel();
+        }
+
+        @Override public int requestFusion(int mode) {
+            int m = transitiveBoundaryFusion(mode);
+            if (m == SYNC) {
+                session.untrackDemand();
+            }
+            return m;
+        }
+
+        @Override public T poll() throws Exception {
+            T v = qs.poll();
+            if (v != null) {
+                session.next(v);
+            } else if (sourceMode == SYNC) {
+                session.terminate();
+                session.complete();
+            }
+            return v;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.MaybeSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Maybe operator, which logs all lifecycle events of the stream from a single observer
+ * @author Dusan Bartos
+ */
+final class MaybeLog<T> extends Maybe<T> {
+
+    private final MaybeSource<T> source;
+    private final EventLogger logger;
+
+    MaybeLog(MaybeSource<T> source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override protected void subscribeActual(MaybeObserver<? super T> observer) {
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(new LogObserver<>(observer, logger));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+
+    static final class LogObserver<T> implements MaybeObserver<T>, Disposable {
+
+        private final MaybeObserver<? super T> actual;
+        private final LogSession session;
+
+        private Disposable d;
+
+        LogObserver(MaybeObserver<? super T> actual, EventLogger logger) {
+            this.actual = actual;
+            this.session = logger.newSession();
+        }
+
+        @Override public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(this.d, d)) {
+                this.d = d;
+                session.subscribe();
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override public void onSuccess(T value) {
+            session.success(value);
+            String outer = session.enterTag();
+            try {
+                actual.onSuccess(value);
+            } finally {
+                session.exitTag(outer);
+            }
+        }
+
+        @Override public void onError(Throwable e) {
+            session.error(e);
+            actual.onError(e);
+        }
+
+        @Override public void onComplete() {
+            session.completeOnThread();
+            actual.onComplete();
+        }
+
+        @Override public void dispose() {
+            session.dispose();
+            d.dispose();
+        }
+
+        @Override public boolean isDisposed() {
+            return d.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableSource;
+import io.reactivex.Observer;
+import io.reactivex.internal.observers.BasicFuseableObserver;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Observable operator, which logs all lifecycle events of the stream from a single observer
+ * @author Dusan Bartos
+ */
+final class ObservableLog<T> extends Observable<T> {
+
+    private final ObservableSource<T> source;
+    private final EventLogger logger;
+
+    ObservableLog(ObservableSource<T> source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override protected void subscribeActual(Observer<? super T> observer) {
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(new LogObserver<>(observer, logger));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+
+    static final class LogObserver<T> extends BasicFuseableObserver<T, T> {
+
+        private final LogSession session;
+
+        LogObserver(Observer<? super T> actual, EventLogger logger) {
+            super(actual);
+            this.session = logger.newSession();
+        }
+
+        @Override protected boolean beforeDownstream() {
+            session.subscribe();
+            return true;
+        }
+
+        @Override public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (sourceMode != NONE) {
+                actual.onNext(null);
+                return;
+            }
+            session.next(t);
+            long start = session.downstreamStart();
+            String outer = session.enterTag();
+            try {
+                actual.onNext(t);
+            } finally {
+                session.exitTag(outer);
+            }
+            if (start != 0) {
+                session.downstreamEnd(start);
+            }
+        }
+
+        @Override public void onError(Throwable t) {
+            if (!done) {
+                session.terminate();
+                session.error(t);
+            }
+            super.onError(t);
+        }
+
+        @Override public void onComplete() {
+            if (!done) {
+                session.terminate();
+                session.complete();
+            }
+            super.onComplete();
+        }
+
+        @Override public void dispose() {
+            session.dispose();
+            super.dispose();
+        }
+
+        @Override public int requestFusion(int mode) {
+            return transitiveBoundaryFusion(mode);
+        }
+
+        @Override public T poll() throws Exception {
+            T v = qs.poll();
+            if (v != null) {
+                session.next(v);
+            } else if (sourceMode == SYNC) {
+                session.terminate();
+                session.complete();
+            }
+            return v;
+        }
+    }
+}
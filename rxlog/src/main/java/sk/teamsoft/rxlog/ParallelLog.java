@@ -0,0 +1,50 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.parallel.ParallelFlowable;
+import org.reactivestreams.Subscriber;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * ParallelFlowable operator, which logs lifecycle events of every rail separately, with the
+ * rail index appended to the message (e.g. {@code [onNext] resize[2] ...})
+ * <p>
+ * Rails are logged by the same subscriber as Flowables, each with its own session. With
+ * {@link RxLog#LOG_RAILS}, the sessions of one subscription share rail accounting
+ * @author Dusan Bartos
+ */
+final class ParallelLog<T> extends ParallelFlowable<T> {
+
+    private final ParallelFlowable<T> source;
+    private final EventLogger logger;
+
+    ParallelLog(ParallelFlowable<T> source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override public int parallelism() {
+        return source.parallelism();
+    }
+
+    @Override public void subscribe(Subscriber<? super T>[] subscribers) {
+        if (!validate(subscribers)) {
+            return;
+        }
+        int n = subscribers.length;
+        LogSession[] sessions = logger.newRailSessions(n);
+        // generic arrays can't be created, the array holds only subscribers of T
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Subscriber<? super T>[] parents = new Subscriber[n];
+        for (int i = 0; i < n; i++) {
+            parents[i] = new FlowableLog.LogSubscriber<>(subscribers[i], sessions[i]);
+        }
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(parents);
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+}
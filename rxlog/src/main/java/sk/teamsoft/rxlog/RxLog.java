@@ -5,22 +5,50 @@ import io.reactivex.FlowableTransformer;
 import io.reactivex.MaybeTransformer;
 import io.reactivex.ObservableTransformer;
 import io.reactivex.SingleTransformer;
-import io.reactivex.functions.Function;
-import timber.log.Timber;
+import io.reactivex.parallel.ParallelTransformer;
+import io.reactivex.plugins.RxJavaPlugins;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogFlags;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.RxLogConfig;
+import sk.teamsoft.rxlog.core.RxLogFlightRecorder;
+import sk.teamsoft.rxlog.core.RxLogMetrics;
+import sk.teamsoft.rxlog.core.RxLogParallel;
+import sk.teamsoft.rxlog.core.RxLogRegistry;
 
 /**
+ * Logging transformers of RxJava2 streams
+ * <p>
+ * Logging can be switched off or filtered at runtime via {@link RxLogConfig}. Event flags have the
+ * same values as {@link LogFlags} of the core module
  * @author Dusan Bartos
  */
 @SuppressWarnings({"WeakerAccess", "unused"})
 public final class RxLog {
 
-    public static final int LOG_NEXT_DATA = 1;
-    public static final int LOG_NEXT_EVENT = 2;
-    public static final int LOG_ERROR = 4;
-    public static final int LOG_COMPLETE = 8;
-    public static final int LOG_SUBSCRIBE = 16;
-    public static final int LOG_TERMINATE = 32;
-    public static final int LOG_DISPOSE = 64;
+    public static final int LOG_NEXT_DATA = LogFlags.LOG_NEXT_DATA;
+    public static final int LOG_NEXT_EVENT = LogFlags.LOG_NEXT_EVENT;
+    public static final int LOG_ERROR = LogFlags.LOG_ERROR;
+    public static final int LOG_COMPLETE = LogFlags.LOG_COMPLETE;
+    public static final int LOG_SUBSCRIBE = LogFlags.LOG_SUBSCRIBE;
+    public static final int LOG_TERMINATE = LogFlags.LOG_TERMINATE;
+    public static final int LOG_DISPOSE = LogFlags.LOG_DISPOSE;
+    /** records counters and latencies of the stream into {@link RxLogMetrics} instead of text lines */
+    public static final int LOG_METRICS = LogFlags.LOG_METRICS;
+    /** Flowable only, logs request(n) calls with outstanding demand and zero-demand stalls */
+    public static final int LOG_REQUEST = LogFlags.LOG_REQUEST;
+    /** Flowable only, logs cancel of the subscription (Flowable equivalent of {@link #LOG_DISPOSE}) */
+    public static final int LOG_CANCEL = LogFlags.LOG_CANCEL;
+    /** reports subscriptions idle longer than a timeout and onNext handling over budget, see {@link LogOptions} */
+    public static final int LOG_WATCHDOG = LogFlags.LOG_WATCHDOG;
+    /** registers active subscriptions into {@link RxLogRegistry} for snapshots and leak detection */
+    public static final int LOG_REGISTRY = LogFlags.LOG_REGISTRY;
+    /** logs next events with data only when the item differs from the last logged one, see {@link LogOptions.Builder#changeKey} */
+    public static final int LOG_NEXT_CHANGED = LogFlags.LOG_NEXT_CHANGED;
+    /** records the last events of each subscription without formatting, dumped when it fails, see {@link RxLogFlightRecorder} */
+    public static final int LOG_FLIGHT = LogFlags.LOG_FLIGHT;
+    /** ParallelFlowable only, counts items and busy time per rail and reports rail imbalance, see {@link RxLogParallel} */
+    public static final int LOG_RAILS = LogFlags.LOG_RAILS;
 
     //region Observable
 
@@ -32,29 +60,20 @@ public final class RxLog {
      * @return transformer
      */
     public static <T> ObservableTransformer<T, T> logObservable(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(oLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_TERMINATE) > 0) {
-                upstream = upstream.compose(oLogTerminate(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(oLogError(msg));
-            }
-            if ((bitMask & LOG_COMPLETE) > 0) {
-                upstream = upstream.compose(oLogComplete(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(oLogNext(msg));
-            } else if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(oLogNextEvent(msg));
-            }
-            if ((bitMask & LOG_DISPOSE) > 0) {
-                upstream = upstream.compose(oLogDispose(msg));
-            }
-            return upstream;
-        };
+        return logObservable(msg, bitMask, LogOptions.DEFAULT);
+    }
+
+    /**
+     * Creates transform operator, which logs defined events in observable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. onNext sampling)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> ObservableTransformer<T, T> logObservable(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new ObservableLog<>(upstream, logger)) : upstream;
     }
 
     /**
@@ -64,47 +83,7 @@ public final class RxLog {
      * @return transformer
      */
     public static <T> ObservableTransformer<T, T> log(final String msg) {
-        return upstream -> upstream
-                .compose(oLogAll(msg))
-                .compose(oLogNext(msg));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogAll(final String msg) {
-        return upstream -> upstream
-                .compose(oLogError(msg))
-                .compose(oLogComplete(msg))
-                .compose(oLogSubscribe(msg))
-                .compose(oLogTerminate(msg))
-                .compose(oLogDispose(msg));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogNext(final String msg) {
-        return upstream -> upstream.doOnNext(data -> Timber.d("[onNext] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogNextEvent(final String msg) {
-        return upstream -> upstream.doOnNext(t -> Timber.d("[onNext] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogError(final String msg) {
-        final Function<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.apply(e)));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogComplete(final String msg) {
-        return upstream -> upstream.doOnComplete(() -> Timber.i("[onComplete] %s", msg));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(disposable -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogTerminate(final String msg) {
-        return upstream -> upstream.doOnTerminate(() -> Timber.v("[terminate] %s", msg));
-    }
-
-    private static <T> ObservableTransformer<T, T> oLogDispose(final String msg) {
-        return upstream -> upstream.doOnDispose(() -> Timber.v("[dispose] %s", msg));
+        return logObservable(msg, LogFlags.LOG_ALL);
     }
     //endregion
 
@@ -118,44 +97,20 @@ public final class RxLog {
      * @return transformer
      */
     public static <T> SingleTransformer<T, T> logSingle(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(sLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(sLogError(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(sLogSuccess(msg));
-            } else if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(sLogSuccessEvent(msg));
-            }
-            if ((bitMask & LOG_DISPOSE) > 0) {
-                upstream = upstream.compose(sLogDispose(msg));
-            }
-            return upstream;
-        };
-    }
-
-    private static <T> SingleTransformer<T, T> sLogSuccess(final String msg) {
-        return upstream -> upstream.doOnSuccess(data -> Timber.d("[onSuccess] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
-    }
-
-    private static <T> SingleTransformer<T, T> sLogSuccessEvent(final String msg) {
-        return upstream -> upstream.doOnSuccess(x -> Timber.d("[onSuccess] %s [Thread:%s]", msg, Thread.currentThread().getName()));
+        return logSingle(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> SingleTransformer<T, T> sLogError(final String msg) {
-        final Function<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.apply(e)));
-    }
-
-    private static <T> SingleTransformer<T, T> sLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(disposable -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> SingleTransformer<T, T> sLogDispose(final String msg) {
-        return upstream -> upstream.doOnDispose(() -> Timber.v("[dispose] %s", msg));
+    /**
+     * Creates transform operator, which logs defined events in single's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. payload renderer)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> SingleTransformer<T, T> logSingle(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new SingleLog<>(upstream, logger)) : upstream;
     }
     //endregion
 
@@ -169,51 +124,20 @@ public final class RxLog {
      * @return transformer
      */
     public static <T> MaybeTransformer<T, T> logMaybe(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(mLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(mLogError(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(mLogSuccess(msg));
-            } else if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(mLogSuccessEvent(msg));
-            }
-            if ((bitMask & LOG_COMPLETE) > 0) {
-                upstream = upstream.compose(mLogComplete(msg));
-            }
-            if ((bitMask & LOG_DISPOSE) > 0) {
-                upstream = upstream.compose(mLogDispose(msg));
-            }
-            return upstream;
-        };
-    }
-
-    private static <T> MaybeTransformer<T, T> mLogSuccess(final String msg) {
-        return upstream -> upstream.doOnSuccess(data -> Timber.d("[onSuccess] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
-    }
-
-    private static <T> MaybeTransformer<T, T> mLogSuccessEvent(final String msg) {
-        return upstream -> upstream.doOnSuccess(x -> Timber.d("[onSuccess] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> MaybeTransformer<T, T> mLogError(final String msg) {
-        final Function<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.apply(e)));
+        return logMaybe(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> MaybeTransformer<T, T> mLogComplete(final String msg) {
-        return upstream -> upstream.doOnComplete(() -> Timber.v("[onComplete] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> MaybeTransformer<T, T> mLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(disposable -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> MaybeTransformer<T, T> mLogDispose(final String msg) {
-        return upstream -> upstream.doOnDispose(() -> Timber.v("[dispose] %s", msg));
+    /**
+     * Creates transform operator, which logs defined events in maybe's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. payload renderer)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> MaybeTransformer<T, T> logMaybe(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new MaybeLog<>(upstream, logger)) : upstream;
     }
     //endregion
 
@@ -226,38 +150,19 @@ public final class RxLog {
      * @return transformer
      */
     public static CompletableTransformer logCompletable(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(cLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(cLogError(msg));
-            }
-            if ((bitMask & LOG_COMPLETE) > 0) {
-                upstream = upstream.compose(cLogComplete(msg));
-            }
-            if ((bitMask & LOG_DISPOSE) > 0) {
-                upstream = upstream.compose(cLogDispose(msg));
-            }
-            return upstream;
-        };
-    }
-
-    private static CompletableTransformer cLogError(final String msg) {
-        final Function<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.apply(e)));
+        return logCompletable(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static CompletableTransformer cLogComplete(final String msg) {
-        return upstream -> upstream.doOnComplete(() -> Timber.v("[onComplete] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static CompletableTransformer cLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(disposable -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static CompletableTransformer cLogDispose(final String msg) {
-        return upstream -> upstream.doOnDispose(() -> Timber.v("[dispose] %s", msg));
+    /**
+     * Creates transform operator, which logs defined events in completable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. flight recorder size)
+     * @return transformer
+     */
+    public static CompletableTransformer logCompletable(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new CompletableLog(upstream, logger)) : upstream;
     }
     //endregion
 
@@ -271,51 +176,50 @@ public final class RxLog {
      * @return transformer
      */
     public static <T> FlowableTransformer<T, T> logFlowable(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(fLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_TERMINATE) > 0) {
-                upstream = upstream.compose(fLogTerminate(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(fLogError(msg));
-            }
-            if ((bitMask & LOG_COMPLETE) > 0) {
-                upstream = upstream.compose(fLogComplete(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(fLogNext(msg));
-            } else if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(fLogNextEvent(msg));
-            }
-            return upstream;
-        };
-    }
-
-    private static <T> FlowableTransformer<T, T> fLogNext(final String msg) {
-        return upstream -> upstream.doOnNext(data -> Timber.d("[onNext] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
+        return logFlowable(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> FlowableTransformer<T, T> fLogNextEvent(final String msg) {
-        return upstream -> upstream.doOnNext(t -> Timber.d("[onNext] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> FlowableTransformer<T, T> fLogError(final String msg) {
-        final Function<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.apply(e)));
+    /**
+     * Creates transform operator, which logs defined events in flowable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. onNext sampling)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> FlowableTransformer<T, T> logFlowable(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new FlowableLog<>(upstream, logger)) : upstream;
     }
+    //endregion
 
-    private static <T> FlowableTransformer<T, T> fLogComplete(final String msg) {
-        return upstream -> upstream.doOnComplete(() -> Timber.i("[onComplete] %s", msg));
-    }
+    //region ParallelFlowable
 
-    private static <T> FlowableTransformer<T, T> fLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(disposable -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
+    /**
+     * Creates transform operator, which logs defined events of every rail of parallel flowable
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> ParallelTransformer<T, T> logParallel(final String msg, final int bitMask) {
+        return logParallel(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> FlowableTransformer<T, T> fLogTerminate(final String msg) {
-        return upstream -> upstream.doOnTerminate(() -> Timber.v("[terminate] %s", msg));
+    /**
+     * Creates transform operator, which logs defined events of every rail of parallel flowable
+     * <p>
+     * Place it right after runOn, so that {@link #LOG_RAILS} measures busy time of all work
+     * done on the rails
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. onNext sampling)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> ParallelTransformer<T, T> logParallel(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        return upstream -> logger.isActive() ? RxJavaPlugins.onAssembly(new ParallelLog<>(upstream, logger)) : upstream;
     }
     //endregion
 }
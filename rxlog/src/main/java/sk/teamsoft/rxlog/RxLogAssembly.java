@@ -0,0 +1,217 @@
+package sk.teamsoft.rxlog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import sk.teamsoft.rxlog.core.CallSites;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogOptions;
+
+/**
+ * Global auto-instrumentation, which logs every assembled Observable, Flowable, Single, Maybe
+ * and Completable via {@link RxJavaPlugins} assembly hooks, without adding transformers by hand
+ * <p>
+ * Every source is tagged by its user-code call site (Class.method:line), which is resolved
+ * through a bounded cache. Package filters limit which call sites are instrumented, e.g.
+ * <pre>
+ * RxLogAssembly.builder()
+ *         .bitMask(RxLog.LOG_SUBSCRIBE | RxLog.LOG_ERROR)
+ *         .include("com.example.app")
+ *         .skip("com.example.app.rx")
+ *         .install();
+ * </pre>
+ * Hooks which were set before are kept and applied before the instrumentation. Connectable
+ * sources are not instrumented
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused", "unchecked"})
+public final class RxLogAssembly {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static Previous previous;
+
+    private RxLogAssembly() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static synchronized boolean isInstalled() {
+        return previous != null;
+    }
+
+    /**
+     * Removes the instrumentation and restores hooks, which were set before {@link Builder#install()}
+     */
+    public static synchronized void uninstall() {
+        Previous p = previous;
+        if (p != null) {
+            previous = null;
+            RxJavaPlugins.setOnObservableAssembly(p.observable);
+            RxJavaPlugins.setOnFlowableAssembly(p.flowable);
+            RxJavaPlugins.setOnSingleAssembly(p.single);
+            RxJavaPlugins.setOnMaybeAssembly(p.maybe);
+            RxJavaPlugins.setOnCompletableAssembly(p.completable);
+        }
+    }
+
+    static synchronized void install(final CallSites callSites) {
+        uninstall();
+        final Previous p = new Previous();
+        previous = p;
+        RxJavaPlugins.setOnObservableAssembly(source -> {
+            Observable<?> o = p.observable != null ? p.observable.apply(source) : source;
+            if (o instanceof ObservableLog) {
+                return o;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrument(o, logger) : o;
+        });
+        RxJavaPlugins.setOnFlowableAssembly(source -> {
+            Flowable<?> f = p.flowable != null ? p.flowable.apply(source) : source;
+            if (f instanceof FlowableLog) {
+                return f;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrument(f, logger) : f;
+        });
+        RxJavaPlugins.setOnSingleAssembly(source -> {
+            Single<?> s = p.single != null ? p.single.apply(source) : source;
+            if (s instanceof SingleLog) {
+                return s;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrument(s, logger) : s;
+        });
+        RxJavaPlugins.setOnMaybeAssembly(source -> {
+            Maybe<?> m = p.maybe != null ? p.maybe.apply(source) : source;
+            if (m instanceof MaybeLog) {
+                return m;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrument(m, logger) : m;
+        });
+        RxJavaPlugins.setOnCompletableAssembly(source -> {
+            Completable c = p.completable != null ? p.completable.apply(source) : source;
+            if (c instanceof CompletableLog) {
+                return c;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? new CompletableLog(c, logger) : c;
+        });
+    }
+
+    private static <T> Observable<T> instrument(Observable<T> source, EventLogger logger) {
+        return new ObservableLog<>(source, logger);
+    }
+
+    private static <T> Flowable<T> instrument(Flowable<T> source, EventLogger logger) {
+        return new FlowableLog<>(source, logger);
+    }
+
+    private static <T> Single<T> instrument(Single<T> source, EventLogger logger) {
+        return new SingleLog<>(source, logger);
+    }
+
+    private static <T> Maybe<T> instrument(Maybe<T> source, EventLogger logger) {
+        return new MaybeLog<>(source, logger);
+    }
+
+    /**
+     * Assembly hooks set before the instrumentation was installed
+     */
+    @SuppressWarnings("rawtypes") // hook types are declared raw by RxJavaPlugins
+    private static final class Previous {
+
+        final Function<? super Observable, ? extends Observable> observable = RxJavaPlugins.getOnObservableAssembly();
+        final Function<? super Flowable, ? extends Flowable> flowable = RxJavaPlugins.getOnFlowableAssembly();
+        final Function<? super Single, ? extends Single> single = RxJavaPlugins.getOnSingleAssembly();
+        final Function<? super Maybe, ? extends Maybe> maybe = RxJavaPlugins.getOnMaybeAssembly();
+        final Function<? super Completable, ? extends Completable> completable = RxJavaPlugins.getOnCompletableAssembly();
+    }
+
+    public static final class Builder {
+
+        private int bitMask = RxLog.LOG_SUBSCRIBE | RxLog.LOG_ERROR | RxLog.LOG_COMPLETE | RxLog.LOG_DISPOSE;
+        private LogOptions options = LogOptions.DEFAULT;
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> skips = new ArrayList<>();
+        private int cacheSize = DEFAULT_CACHE_SIZE;
+
+        Builder() {
+        }
+
+        /**
+         * @param bitMask events logged for every instrumented source
+         * @return builder
+         */
+        public Builder bitMask(int bitMask) {
+            this.bitMask = bitMask;
+            return this;
+        }
+
+        public Builder options(LogOptions options) {
+            if (options == null) {
+                throw new NullPointerException("options == null");
+            }
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * Instruments only sources assembled from given packages (or classes), all call sites are
+         * instrumented if no include is set
+         * @param prefixes package or class name prefixes
+         * @return builder
+         */
+        public Builder include(String... prefixes) {
+            Collections.addAll(includes, prefixes);
+            return this;
+        }
+
+        /**
+         * Skips frames of given packages (or classes) when resolving the call site, e.g. wrapper
+         * libraries, so the call site is their caller. Sources are still instrumented, only tagged
+         * by their caller, use {@link #include(String...)} to limit instrumented call sites
+         * @param prefixes package or class name prefixes
+         * @return builder
+         */
+        public Builder skip(String... prefixes) {
+            Collections.addAll(skips, prefixes);
+            return this;
+        }
+
+        /**
+         * @param cacheSize max number of cached call sites
+         * @return builder
+         */
+        public Builder cacheSize(int cacheSize) {
+            if (cacheSize <= 0) {
+                throw new IllegalArgumentException("cacheSize <= 0: " + cacheSize);
+            }
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Installs the instrumentation, replacing previous one if installed
+         */
+        public void install() {
+            RxLogAssembly.install(new CallSites(bitMask, options,
+                    includes.toArray(new String[includes.size()]),
+                    skips.toArray(new String[skips.size()]),
+                    cacheSize));
+        }
+    }
+}
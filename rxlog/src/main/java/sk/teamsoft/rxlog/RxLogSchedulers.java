@@ -0,0 +1,58 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.functions.Function;
+import io.reactivex.plugins.RxJavaPlugins;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Instrumentation of RxJava2 schedulers via {@link RxJavaPlugins#setScheduleHandler}, which records
+ * queueing delay and execution time of every scheduled task into {@link SchedulerStats}
+ * <p>
+ * Tasks scheduled while a logging transformer subscribes or emits an item are tagged with its
+ * message. The handler which was set before is kept and applied before the instrumentation
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLogSchedulers {
+
+    private static Previous previous;
+
+    private RxLogSchedulers() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static synchronized boolean isInstalled() {
+        return previous != null;
+    }
+
+    /**
+     * Installs the instrumentation, replacing previous one if installed
+     */
+    public static synchronized void install() {
+        uninstall();
+        final Previous p = new Previous();
+        previous = p;
+        RxJavaPlugins.setScheduleHandler(run -> SchedulerStats.wrap(p.handler != null ? p.handler.apply(run) : run));
+        SchedulerStats.hookInstalled();
+    }
+
+    /**
+     * Removes the instrumentation and restores handler, which was set before {@link #install()}
+     */
+    public static synchronized void uninstall() {
+        Previous p = previous;
+        if (p != null) {
+            previous = null;
+            RxJavaPlugins.setScheduleHandler(p.handler);
+            SchedulerStats.hookUninstalled();
+        }
+    }
+
+    /**
+     * Schedule handler set before the instrumentation was installed
+     */
+    private static final class Previous {
+
+        final Function<? super Runnable, ? extends Runnable> handler = RxJavaPlugins.getScheduleHandler();
+    }
+}
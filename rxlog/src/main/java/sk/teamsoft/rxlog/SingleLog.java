@@ -0,0 +1,79 @@
+package sk.teamsoft.rxlog;
+
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.internal.disposables.DisposableHelper;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Single operator, which logs all lifecycle events of the stream from a single observer
+ * @author Dusan Bartos
+ */
+final class SingleLog<T> extends Single<T> {
+
+    private final SingleSource<T> source;
+    private final EventLogger logger;
+
+    SingleLog(SingleSource<T> source, EventLogger logger) {
+        this.source = source;
+        this.logger = logger;
+    }
+
+    @Override protected void subscribeActual(SingleObserver<? super T> observer) {
+        String outer = SchedulerStats.enter(logger.msg);
+        try {
+            source.subscribe(new LogObserver<>(observer, logger));
+        } finally {
+            SchedulerStats.exit(outer);
+        }
+    }
+
+    static final class LogObserver<T> implements SingleObserver<T>, Disposable {
+
+        private final SingleObserver<? super T> actual;
+        private final LogSession session;
+
+        private Disposable d;
+
+        LogObserver(SingleObserver<? super T> actual, EventLogger logger) {
+            this.actual = actual;
+            this.session = logger.newSession();
+        }
+
+        @Override public void onSubscribe(Disposable d) {
+            if (DisposableHelper.validate(this.d, d)) {
+                this.d = d;
+                session.subscribe();
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override public void onSuccess(T value) {
+            session.success(value);
+            String outer = session.enterTag();
+            try {
+                actual.onSuccess(value);
+            } finally {
+                session.exitTag(outer);
+            }
+        }
+
+        @Override public void onError(Throwable e) {
+            session.error(e);
+            actual.onError(e);
+        }
+
+        @Override public void dispose() {
+            session.dispose();
+            d.dispose();
+        }
+
+        @Override public boolean isDisposed() {
+            return d.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package sk.teamsoft.rxlog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import io.reactivex.Flowable;
+import io.reactivex.subscribers.TestSubscriber;
+import sk.teamsoft.rxlog.core.AsyncLog;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.LogOutput;
+import sk.teamsoft.rxlog.core.LogSink;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Dusan Bartos
+ */
+public class FlowableLogTest {
+
+    private LogSink previous;
+    private RecordingSink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new RecordingSink();
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void requestsAndCancelAreLogged() {
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 10)
+                .compose(RxLog.<Integer>logFlowable("flow", RxLog.LOG_NEXT_EVENT | RxLog.LOG_REQUEST | RxLog.LOG_CANCEL))
+                .test(1);
+        subscriber.requestMore(2);
+        subscriber.cancel();
+        subscriber.assertValues(1, 2, 3);
+
+        assertEquals(Arrays.asList("request", "onNext", "request", "onNext", "onNext", "cancel"), sink.events());
+        assertEquals("[request] flow n=2 outstanding=2 delivered=1", sink.lines().get(2));
+    }
+
+    @Test public void sampledItemsAreDeliveredButNotLogged() {
+        Flowable.range(0, 10)
+                .compose(RxLog.<Integer>logFlowable("sampled", RxLog.LOG_NEXT_DATA | RxLog.LOG_COMPLETE, LogOptions.builder()
+                        .everyNth(5)
+                        .build()))
+                .test()
+                .assertValueCount(10)
+                .assertComplete();
+
+        assertEquals(Arrays.asList("onNext", "onNext", "onComplete", "sampled"), sink.events());
+    }
+
+    @Test public void fusedItemsAreLogged() {
+        // concatMap fuses with its source, items are pulled by poll() instead of being emitted
+        Flowable.range(1, 3)
+                .compose(RxLog.<Integer>logFlowable("fused", RxLog.LOG_NEXT_DATA | RxLog.LOG_COMPLETE))
+                .concatMap(Flowable::just)
+                .test()
+                .assertResult(1, 2, 3);
+
+        assertEquals(Arrays.asList("onNext", "onNext", "onNext", "onComplete"), sink.events());
+        assertEquals(Arrays.asList(true, true, true, true), sink.polled());
+    }
+
+    @Test public void errorIsLoggedOnce() {
+        Flowable.<Integer>error(new IllegalStateException("boom"))
+                .compose(RxLog.<Integer>logFlowable("failing", RxLog.LOG_ERROR | RxLog.LOG_TERMINATE))
+                .test()
+                .assertError(IllegalStateException.class);
+
+        assertEquals(Arrays.asList("terminate", "onError"), sink.events());
+        assertEquals("[onError] failing - boom", sink.lines().get(1));
+    }
+
+    @Test public void cancelIsNotLoggedAfterError() {
+        Flowable.<Integer>error(new IllegalStateException("boom"))
+                .compose(RxLog.<Integer>logFlowable("failing", RxLog.LOG_ERROR | RxLog.LOG_CANCEL))
+                .test()
+                .assertError(IllegalStateException.class);
+
+        assertEquals(Arrays.asList("onError"), sink.events());
+    }
+}
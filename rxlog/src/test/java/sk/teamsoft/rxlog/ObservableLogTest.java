@@ -0,0 +1,141 @@
+package sk.teamsoft.rxlog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import sk.teamsoft.rxlog.core.AsyncLog;
+import sk.teamsoft.rxlog.core.ItemKey;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.LogOutput;
+import sk.teamsoft.rxlog.core.LogSink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class ObservableLogTest {
+
+    private LogSink previous;
+    private RecordingSink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new RecordingSink();
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void lifecycleIsLoggedInOrder() {
+        Observable.just(1, 2)
+                .compose(RxLog.<Integer>logObservable("obs", RxLog.LOG_SUBSCRIBE | RxLog.LOG_NEXT_DATA | RxLog.LOG_COMPLETE | RxLog.LOG_TERMINATE))
+                .test()
+                .assertResult(1, 2);
+
+        assertEquals(Arrays.asList("subscribe", "onNext", "onNext", "terminate", "onComplete"), sink.events());
+        assertEquals("[onNext] obs 2 [Thread:main]", sink.lines().get(2).replace(Thread.currentThread().getName(), "main"));
+    }
+
+    @Test public void sampledItemsAreDeliveredButNotLogged() {
+        Observable.range(0, 10)
+                .compose(RxLog.<Integer>logObservable("sampled", RxLog.LOG_NEXT_DATA | RxLog.LOG_COMPLETE, LogOptions.builder()
+                        .everyNth(5)
+                        .build()))
+                .test()
+                .assertValueCount(10)
+                .assertComplete();
+
+        assertEquals(Arrays.asList("onNext", "onNext", "onComplete", "sampled"), sink.events());
+        assertEquals("[sampled] sampled 8 of 10 items not logged", sink.lines().get(3));
+    }
+
+    @Test public void unchangedItemsAreDeliveredButNotLogged() {
+        Observable.just("a", "a", "b", "b", "b", "a")
+                .compose(RxLog.<String>logObservable("changes", RxLog.LOG_NEXT_CHANGED))
+                .test()
+                .assertValues("a", "a", "b", "b", "b", "a");
+
+        // duplicates are reported when the item changes
+        assertEquals(Arrays.asList("onNext", "unchanged", "onNext", "unchanged", "onNext"), sink.events());
+        assertEquals("[unchanged] changes 2 duplicates not logged", sink.lines().get(3));
+    }
+
+    @Test public void fusedItemsAreLogged() {
+        // concatMap fuses with its source, items are pulled by poll() instead of being emitted
+        Observable.range(1, 3)
+                .compose(RxLog.<Integer>logObservable("fused", RxLog.LOG_NEXT_DATA | RxLog.LOG_COMPLETE))
+                .concatMap(Observable::just)
+                .test()
+                .assertResult(1, 2, 3);
+
+        assertEquals(Arrays.asList("onNext", "onNext", "onNext", "onComplete"), sink.events());
+        assertEquals(Arrays.asList(true, true, true, true), sink.polled());
+    }
+
+    @Test public void changeKeyIsTakenWhenFusedItemIsPolled() {
+        final List<Boolean> polled = new ArrayList<>();
+        Observable.range(1, 3)
+                .compose(RxLog.<Integer>logObservable("fused", RxLog.LOG_NEXT_CHANGED | RxLog.LOG_COMPLETE, LogOptions.builder()
+                        .changeKey(new ItemKey() {
+                            @Override public Object keyOf(Object item) {
+                                polled.add(RecordingSink.calledFromPoll());
+                                return item;
+                            }
+                        })
+                        .build()))
+                .concatMap(Observable::just)
+                .test()
+                .assertResult(1, 2, 3);
+
+        assertEquals(Arrays.asList(true, true, true), polled);
+        assertEquals(Arrays.asList("onNext", "onNext", "onNext", "onComplete"), sink.events());
+    }
+
+    @Test public void subscriptionIdsAndThreadHopsAreLogged() {
+        Observable<Integer> logged = Observable.just(1)
+                .compose(RxLog.<Integer>logObservable("ids", RxLog.LOG_SUBSCRIBE | RxLog.LOG_NEXT_EVENT | RxLog.LOG_COMPLETE, LogOptions.builder()
+                        .subscriptionIds(true)
+                        .threadHopsOnly(true)
+                        .build()));
+        logged.test().assertResult(1);
+        logged.test().assertResult(1);
+
+        List<String> lines = sink.lines();
+        String first = lines.get(0).substring("[subscribe] ids#".length(), lines.get(0).indexOf(' ', "[subscribe] ".length()));
+        String second = String.valueOf(Long.parseLong(first) + 1);
+        String thread = " [Thread:" + Thread.currentThread().getName() + "]";
+        assertEquals(Arrays.asList(
+                "[subscribe] ids#" + first + thread,
+                "[onNext] ids#" + first,
+                "[onComplete] ids#" + first,
+                "[subscribe] ids#" + second + thread,
+                "[onNext] ids#" + second,
+                "[onComplete] ids#" + second), lines);
+    }
+
+    @Test public void disposeIsLogged() {
+        TestObserver<Object> observer = Observable.never()
+                .compose(RxLog.logObservable("never", RxLog.LOG_SUBSCRIBE | RxLog.LOG_DISPOSE))
+                .test();
+        observer.dispose();
+
+        assertEquals(Arrays.asList("subscribe", "dispose"), sink.events());
+    }
+
+    @Test public void disabledEventsReturnUpstream() {
+        Observable<Integer> upstream = Observable.just(1);
+        assertTrue(upstream == upstream.compose(RxLog.<Integer>logObservable("none", 0)));
+    }
+}
@@ -0,0 +1,73 @@
+package sk.teamsoft.rxlog;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import sk.teamsoft.rxlog.core.AsyncLog;
+import sk.teamsoft.rxlog.core.LogOutput;
+import sk.teamsoft.rxlog.core.LogSink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Dusan Bartos
+ */
+public class ParallelLogTest {
+
+    private static final int RAILS = 4;
+
+    private LogSink previous;
+    private RecordingSink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new RecordingSink();
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void everyRailIsLoggedAndReportedOnce() {
+        Flowable.range(0, 100)
+                .parallel(RAILS)
+                .runOn(Schedulers.computation())
+                .compose(RxLog.<Integer>logParallel("rails", RxLog.LOG_COMPLETE | RxLog.LOG_RAILS))
+                .sequential()
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(100)
+                .assertComplete();
+
+        List<String> completed = new ArrayList<>();
+        List<String> reports = new ArrayList<>();
+        List<String> events = sink.events();
+        List<String> lines = sink.lines();
+        for (int i = 0; i < events.size(); i++) {
+            if ("onComplete".equals(events.get(i))) {
+                completed.add(lines.get(i));
+            } else {
+                reports.add(lines.get(i));
+            }
+        }
+        assertEquals(RAILS, completed.size());
+        assertEquals(reports.toString(), 1, reports.size());
+        String report = reports.get(0);
+        assertTrue(report, report.startsWith("[rails] rails x" + RAILS + " rails items="));
+        int items = 0;
+        for (String rail : report.substring(report.indexOf("items=") + 6, report.indexOf(' ', report.indexOf("items="))).split("/")) {
+            items += Integer.parseInt(rail);
+        }
+        assertEquals(100, items);
+    }
+}
@@ -0,0 +1,65 @@
+package sk.teamsoft.rxlog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import sk.teamsoft.rxlog.core.LogEvent;
+import sk.teamsoft.rxlog.core.LogSink;
+
+/**
+ * Keeps events written to the sink, and whether they were logged from a fused poll() of the
+ * logging operators
+ * @author Dusan Bartos
+ */
+final class RecordingSink implements LogSink {
+
+    private final List<LogEvent> events = new ArrayList<>();
+    private final List<Boolean> polled = new ArrayList<>();
+
+    @Override public boolean isLoggable(int priority) {
+        return true;
+    }
+
+    @Override public synchronized void write(List<LogEvent> batch) {
+        boolean fromPoll = calledFromPoll();
+        for (LogEvent event : batch) {
+            events.add(event);
+            polled.add(fromPoll);
+        }
+    }
+
+    synchronized List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (LogEvent event : events) {
+            lines.add(event.message());
+        }
+        return lines;
+    }
+
+    /**
+     * @return event names, e.g. onNext for "[onNext] msg item"
+     */
+    synchronized List<String> events() {
+        List<String> names = new ArrayList<>();
+        for (LogEvent event : events) {
+            names.add(event.event);
+        }
+        return names;
+    }
+
+    synchronized List<Boolean> polled() {
+        return new ArrayList<>(polled);
+    }
+
+    /**
+     * @return true when called from a fused poll() of the logging operators
+     */
+    static boolean calledFromPoll() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if ("poll".equals(element.getMethodName()) && element.getClassName().startsWith(RecordingSink.class.getPackage().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
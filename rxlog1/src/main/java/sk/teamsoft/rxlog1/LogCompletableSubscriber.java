@@ -0,0 +1,57 @@
+package sk.teamsoft.rxlog1;
+
+import rx.CompletableSubscriber;
+import rx.Subscription;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+
+/**
+ * Completable variant of {@link LogSubscriber}
+ * <p>
+ * Passes itself downstream as the subscription, so unsubscribe of the actual subscriber is
+ * logged before it is forwarded upstream
+ * @author Dusan Bartos
+ */
+final class LogCompletableSubscriber implements CompletableSubscriber, Subscription {
+
+    private final CompletableSubscriber actual;
+    private final LogSession session;
+    private volatile Subscription upstream;
+    private volatile boolean unsubscribed;
+
+    LogCompletableSubscriber(CompletableSubscriber actual, EventLogger logger) {
+        this.actual = actual;
+        this.session = logger.newSession();
+    }
+
+    @Override public void onSubscribe(Subscription d) {
+        upstream = d;
+        session.subscribe();
+        actual.onSubscribe(this);
+    }
+
+    @Override public void onCompleted() {
+        session.terminate();
+        session.completeOnThread();
+        actual.onCompleted();
+    }
+
+    @Override public void onError(Throwable e) {
+        session.terminate();
+        session.error(e);
+        actual.onError(e);
+    }
+
+    @Override public void unsubscribe() {
+        if (!unsubscribed) {
+            unsubscribed = true;
+            session.unsubscribe();
+            upstream.unsubscribe();
+        }
+    }
+
+    @Override public boolean isUnsubscribed() {
+        Subscription u = upstream;
+        return unsubscribed || (u != null && u.isUnsubscribed());
+    }
+}
@@ -0,0 +1,48 @@
+package sk.teamsoft.rxlog1;
+
+import rx.Subscriber;
+import rx.subscriptions.Subscriptions;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+
+/**
+ * Single variant of {@link LogSubscriber}, lifted into the Single by {@link rx.Single#lift}
+ * <p>
+ * The lifted Single delivers its value as onNext followed by onCompleted, the value is logged
+ * as success and the completion only as terminate
+ * @author Dusan Bartos
+ */
+final class LogSingleSubscriber<T> extends Subscriber<T> {
+
+    private final Subscriber<? super T> actual;
+    private final LogSession session;
+
+    LogSingleSubscriber(Subscriber<? super T> actual, EventLogger logger) {
+        super(actual);
+        this.actual = actual;
+        this.session = logger.newSession();
+        session.subscribe();
+        add(Subscriptions.create(session::unsubscribe));
+    }
+
+    @Override public void onNext(T value) {
+        session.success(value);
+        String outer = session.enterTag();
+        try {
+            actual.onNext(value);
+        } finally {
+            session.exitTag(outer);
+        }
+    }
+
+    @Override public void onError(Throwable e) {
+        session.terminate();
+        session.error(e);
+        actual.onError(e);
+    }
+
+    @Override public void onCompleted() {
+        session.terminate();
+        actual.onCompleted();
+    }
+}
@@ -0,0 +1,79 @@
+package sk.teamsoft.rxlog1;
+
+import rx.Producer;
+import rx.Subscriber;
+import rx.subscriptions.Subscriptions;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogSession;
+
+/**
+ * Subscriber, which logs events of a single subscription through its {@link LogSession} and
+ * forwards them to the actual subscriber
+ * <p>
+ * Shares subscription list and backpressure with the actual subscriber, so it is transparent
+ * for both upstream and downstream. With {@link RxLog1#LOG_REQUEST}, the producer passed down
+ * is wrapped, so requests of the actual subscriber are logged with outstanding demand
+ * @author Dusan Bartos
+ */
+final class LogSubscriber<T> extends Subscriber<T> {
+
+    private final Subscriber<? super T> actual;
+    private final LogSession session;
+
+    LogSubscriber(Subscriber<? super T> actual, EventLogger logger) {
+        super(actual);
+        this.actual = actual;
+        this.session = logger.newSession();
+        session.subscribe();
+        add(Subscriptions.create(session::unsubscribe));
+    }
+
+    @Override public void setProducer(Producer p) {
+        super.setProducer(session.isTrackingRequests() ? new LogProducer(p) : p);
+    }
+
+    @Override public void onNext(T t) {
+        session.next(t);
+        long start = session.downstreamStart();
+        String outer = session.enterTag();
+        try {
+            actual.onNext(t);
+        } finally {
+            session.exitTag(outer);
+        }
+        if (start != 0) {
+            session.downstreamEnd(start);
+        }
+    }
+
+    @Override public void onError(Throwable e) {
+        session.terminate();
+        session.error(e);
+        actual.onError(e);
+    }
+
+    @Override public void onCompleted() {
+        session.terminate();
+        session.complete();
+        actual.onCompleted();
+    }
+
+    /**
+     * Producer passed to the actual subscriber, logs its requests before passing them upstream
+     */
+    private final class LogProducer implements Producer {
+
+        private final Producer producer;
+
+        LogProducer(Producer producer) {
+            this.producer = producer;
+        }
+
+        @Override public void request(long n) {
+            if (n > 0) {
+                session.request(n);
+            }
+            producer.request(n);
+        }
+    }
+}
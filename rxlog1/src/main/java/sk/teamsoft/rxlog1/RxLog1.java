@@ -1,47 +1,80 @@
 package sk.teamsoft.rxlog1;
 
+import rx.Completable;
 import rx.Observable;
 import rx.Single;
-import rx.functions.Func1;
-import timber.log.Timber;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogFlags;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.RxLogConfig;
+import sk.teamsoft.rxlog.core.RxLogFlightRecorder;
+import sk.teamsoft.rxlog.core.RxLogMetrics;
+import sk.teamsoft.rxlog.core.RxLogRegistry;
 
 /**
+ * Logging transformers for RxJava1
+ * <p>
+ * Every transformer lifts a single subscriber, which handles all events of a subscription in
+ * one place, so each event is logged at most once regardless of the bitmask. Events are logged
+ * by the core module the same way as by RxLog, with the same flags (see {@link LogFlags}) and
+ * runtime configuration ({@link RxLogConfig})
  * @author Dusan Bartos
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 public final class RxLog1 {
 
-    public static final int LOG_NEXT_DATA = 1;
-    public static final int LOG_NEXT_EVENT = 2;
-    public static final int LOG_ERROR = 4;
-    public static final int LOG_COMPLETE = 8;
-    public static final int LOG_SUBSCRIBE = 16;
-    public static final int LOG_UNSUBSCRIBE = 32;
+    public static final int LOG_NEXT_DATA = LogFlags.LOG_NEXT_DATA;
+    public static final int LOG_NEXT_EVENT = LogFlags.LOG_NEXT_EVENT;
+    public static final int LOG_ERROR = LogFlags.LOG_ERROR;
+    public static final int LOG_COMPLETE = LogFlags.LOG_COMPLETE;
+    public static final int LOG_SUBSCRIBE = LogFlags.LOG_SUBSCRIBE;
+    public static final int LOG_TERMINATE = LogFlags.LOG_TERMINATE;
+    /**
+     * Same bit as {@link #LOG_TERMINATE}, which it has always logged
+     * @deprecated use {@link #LOG_TERMINATE}, unsubscribe is logged with {@link #LOG_DISPOSE}
+     */
+    @Deprecated
+    public static final int LOG_UNSUBSCRIBE = LOG_TERMINATE;
+    /** logs unsubscribe of the subscription, same bit as {@code RxLog.LOG_DISPOSE} */
+    public static final int LOG_DISPOSE = LogFlags.LOG_DISPOSE;
+    /** records counters and latencies of the stream into {@link RxLogMetrics} instead of text lines */
+    public static final int LOG_METRICS = LogFlags.LOG_METRICS;
+    /** logs requests of downstream with outstanding demand, and stalls with zero demand (Observable only) */
+    public static final int LOG_REQUEST = LogFlags.LOG_REQUEST;
+    /** reports subscriptions idle longer than a timeout and onNext handling over budget, see {@link LogOptions} */
+    public static final int LOG_WATCHDOG = LogFlags.LOG_WATCHDOG;
+    /** registers active subscriptions into {@link RxLogRegistry} for snapshots and leak detection */
+    public static final int LOG_REGISTRY = LogFlags.LOG_REGISTRY;
+    /** logs next events with data only when the item differs from the last logged one, see {@link LogOptions.Builder#changeKey} (Observable only) */
+    public static final int LOG_NEXT_CHANGED = LogFlags.LOG_NEXT_CHANGED;
+    /** records the last events of each subscription without formatting, dumped when it fails, see {@link RxLogFlightRecorder} */
+    public static final int LOG_FLIGHT = LogFlags.LOG_FLIGHT;
 
     //region Observable
 
+    /**
+     * Creates transform operator, which logs defined events in observable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param <T>     type
+     * @return transformer
+     */
     public static <T> Observable.Transformer<T, T> log(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(logSubscribe(msg));
-            }
-            if ((bitMask & LOG_UNSUBSCRIBE) > 0) {
-                upstream = upstream.compose(logTerminate(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(logError(msg));
-            }
-            if ((bitMask & LOG_COMPLETE) > 0) {
-                upstream = upstream.compose(logComplete(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(logNext(msg));
-            }
-            if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(logNextEvent(msg));
-            }
-            return upstream;
-        };
+        return log(msg, bitMask, LogOptions.DEFAULT);
+    }
+
+    /**
+     * Creates transform operator, which logs defined events in observable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. onNext sampling)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> Observable.Transformer<T, T> log(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        final Observable.Operator<T, T> operator = child -> new LogSubscriber<>(child, logger);
+        return upstream -> logger.isActive() ? upstream.lift(operator) : upstream;
     }
 
     /**
@@ -51,9 +84,7 @@ public final class RxLog1 {
      * @return transformer
      */
     public static <T> Observable.Transformer<T, T> log(final String msg) {
-        return upstream -> upstream
-                .compose(logAll(msg))
-                .compose(logNext(msg));
+        return log(msg, LogFlags.LOG_ALL);
     }
 
     /**
@@ -65,101 +96,69 @@ public final class RxLog1 {
      * @return transformer
      */
     public static <T> Observable.Transformer<T, T> logLifecycle(final String msg) {
-        return upstream -> upstream
-                .compose(logAll(msg))
-                .compose(logNextEvent(msg));
-    }
-
-    private static <T> Observable.Transformer<T, T> logAll(final String msg) {
-        return upstream -> upstream
-                .compose(logError(msg))
-                .compose(logComplete(msg))
-                .compose(logSubscribe(msg))
-                .compose(logTerminate(msg))
-                .compose(logUnsubscribe(msg));
-    }
-
-    private static <T> Observable.Transformer<T, T> logNext(final String msg) {
-        return upstream -> upstream.doOnNext(data -> Timber.d("[onNext] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
-    }
-
-    private static <T> Observable.Transformer<T, T> logNextEvent(final String msg) {
-        return upstream -> upstream.doOnNext(t -> Timber.d("[onNext] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> Observable.Transformer<T, T> logError(final String msg) {
-        final Func1<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.call(e)));
-    }
-
-    private static <T> Observable.Transformer<T, T> logComplete(final String msg) {
-        return upstream -> upstream.doOnCompleted(() -> Timber.i("[onComplete] %s", msg));
-    }
-
-    private static <T> Observable.Transformer<T, T> logSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(() -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
-    }
-
-    private static <T> Observable.Transformer<T, T> logTerminate(final String msg) {
-        return upstream -> upstream.doOnTerminate(() -> Timber.v("[terminate] %s", msg));
-    }
-
-    private static <T> Observable.Transformer<T, T> logUnsubscribe(final String msg) {
-        return upstream -> upstream.doOnUnsubscribe(() -> Timber.v("[unsubscribe] %s", msg));
+        return log(msg, (LogFlags.LOG_ALL & ~LOG_NEXT_DATA) | LOG_NEXT_EVENT);
     }
 
     //endregion
 
     //region Single
-    public static <T> Single.Transformer<T, T> logSingle(final String msg, final int bitMask) {
-        return upstream -> {
-            if ((bitMask & LOG_SUBSCRIBE) > 0) {
-                upstream = upstream.compose(sLogSubscribe(msg));
-            }
-            if ((bitMask & LOG_ERROR) > 0) {
-                upstream = upstream.compose(sLogError(msg));
-            }
-            if ((bitMask & LOG_NEXT_DATA) > 0) {
-                upstream = upstream.compose(sLogNext(msg));
-            } else if ((bitMask & LOG_NEXT_EVENT) > 0) {
-                upstream = upstream.compose(sLogNextEvent(msg));
-            }
-            return upstream;
-        };
-    }
-
-    public static <T> Single.Transformer<T, T> logSingle(final String msg) {
-        return upstream -> upstream
-                .compose(sLogAll(msg))
-                .compose(sLogNext(msg));
-    }
 
-    private static <T> Single.Transformer<T, T> sLogAll(final String msg) {
-        return upstream -> upstream
-                .compose(sLogError(msg))
-                .compose(sLogSubscribe(msg))
-                .compose(sLogUnsubscribe(msg));
+    /**
+     * Creates transform operator, which logs defined events in single's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> Single.Transformer<T, T> logSingle(final String msg, final int bitMask) {
+        return logSingle(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> Single.Transformer<T, T> sLogNext(final String msg) {
-        return upstream -> upstream.doOnSuccess(data -> Timber.d("[onNext] %s %s [Thread:%s]", msg, data, Thread.currentThread().getName()));
+    /**
+     * Creates transform operator, which logs defined events in single's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. payload renderer)
+     * @param <T>     type
+     * @return transformer
+     */
+    public static <T> Single.Transformer<T, T> logSingle(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        final Observable.Operator<T, T> operator = child -> new LogSingleSubscriber<>(child, logger);
+        return upstream -> logger.isActive() ? upstream.lift(operator) : upstream;
     }
 
-    private static <T> Single.Transformer<T, T> sLogNextEvent(final String msg) {
-        return upstream -> upstream.doOnSuccess(t -> Timber.d("[onNext] %s [Thread:%s]", msg, Thread.currentThread().getName()));
+    /**
+     * Creates transform operator, which logs important events in single's lifecycle
+     * @param msg message
+     * @param <T> type
+     * @return transformer
+     */
+    public static <T> Single.Transformer<T, T> logSingle(final String msg) {
+        return logSingle(msg, LOG_NEXT_DATA | LOG_ERROR | LOG_SUBSCRIBE | LOG_DISPOSE);
     }
+    //endregion
 
-    private static <T> Single.Transformer<T, T> sLogError(final String msg) {
-        final Func1<Throwable, String> message = e -> e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
-        return upstream -> upstream.doOnError(e -> Timber.e("[onError] %s - %s", msg, message.call(e)));
+    //region Completable
+    public static Completable.Transformer logCompletable(final String msg, final int bitMask) {
+        return logCompletable(msg, bitMask, LogOptions.DEFAULT);
     }
 
-    private static <T> Single.Transformer<T, T> sLogSubscribe(final String msg) {
-        return upstream -> upstream.doOnSubscribe(() -> Timber.v("[subscribe] %s [Thread:%s]", msg, Thread.currentThread().getName()));
+    /**
+     * Creates transform operator, which logs defined events in completable's lifecycle
+     * @param msg     message
+     * @param bitMask bitmask of events which you want to log
+     * @param options additional options (e.g. flight recorder size)
+     * @return transformer
+     */
+    public static Completable.Transformer logCompletable(final String msg, final int bitMask, final LogOptions options) {
+        final EventLogger logger = new EventLogger(msg, bitMask, options);
+        final Completable.Operator operator = actual -> new LogCompletableSubscriber(actual, logger);
+        return upstream -> logger.isActive() ? upstream.lift(operator) : upstream;
     }
 
-    private static <T> Single.Transformer<T, T> sLogUnsubscribe(final String msg) {
-        return upstream -> upstream.doOnUnsubscribe(() -> Timber.v("[unsubscribe] %s", msg));
+    public static Completable.Transformer logCompletable(final String msg) {
+        return logCompletable(msg, LogFlags.LOG_ALL);
     }
     //endregion
 }
@@ -0,0 +1,200 @@
+package sk.teamsoft.rxlog1;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import rx.Observable;
+import rx.Single;
+import rx.SingleSubscriber;
+import rx.Subscriber;
+import rx.functions.Func1;
+import rx.internal.operators.SingleLiftObservableOperator;
+import rx.plugins.RxJavaHooks;
+import sk.teamsoft.rxlog.core.CallSites;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.LogOptions;
+
+/**
+ * Global auto-instrumentation, which logs every created Observable and Single via
+ * {@link RxJavaHooks}, without adding transformers by hand
+ * <p>
+ * Every source is tagged by its user-code call site (Class.method:line), which is resolved
+ * through a bounded cache. Package filters limit which call sites are instrumented, e.g.
+ * <pre>
+ * RxLog1Assembly.builder()
+ *         .bitMask(RxLog1.LOG_SUBSCRIBE | RxLog1.LOG_ERROR)
+ *         .include("com.example.app")
+ *         .install();
+ * </pre>
+ * Hooks which were set before are kept and applied before the instrumentation
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused", "unchecked"})
+public final class RxLog1Assembly {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static Previous previous;
+
+    private RxLog1Assembly() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static synchronized boolean isInstalled() {
+        return previous != null;
+    }
+
+    /**
+     * Removes the instrumentation and restores hooks, which were set before {@link Builder#install()}
+     */
+    public static synchronized void uninstall() {
+        Previous p = previous;
+        if (p != null) {
+            previous = null;
+            RxJavaHooks.setOnObservableCreate(p.observable);
+            RxJavaHooks.setOnSingleCreate(p.single);
+        }
+    }
+
+    static synchronized void install(final CallSites callSites) {
+        uninstall();
+        final Previous p = new Previous();
+        previous = p;
+        RxJavaHooks.setOnObservableCreate(source -> {
+            Observable.OnSubscribe<?> o = p.observable != null ? p.observable.call(source) : source;
+            if (o instanceof LogOnSubscribe) {
+                return o;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrumentObservable(o, logger) : o;
+        });
+        RxJavaHooks.setOnSingleCreate(source -> {
+            Single.OnSubscribe<?> s = p.single != null ? p.single.call(source) : source;
+            if (s instanceof LogSingleOnSubscribe) {
+                return s;
+            }
+            EventLogger logger = callSites.current();
+            return logger != null && logger.isActive() ? instrumentSingle(s, logger) : s;
+        });
+    }
+
+    private static <T> Observable.OnSubscribe<T> instrumentObservable(Observable.OnSubscribe<T> source, EventLogger logger) {
+        return new LogOnSubscribe<>(source, logger);
+    }
+
+    private static <T> Single.OnSubscribe<T> instrumentSingle(Single.OnSubscribe<T> source, EventLogger logger) {
+        return new LogSingleOnSubscribe<>(source, logger);
+    }
+
+    private static final class LogOnSubscribe<T> implements Observable.OnSubscribe<T> {
+
+        private final Observable.OnSubscribe<T> source;
+        private final EventLogger logger;
+
+        LogOnSubscribe(Observable.OnSubscribe<T> source, EventLogger logger) {
+            this.source = source;
+            this.logger = logger;
+        }
+
+        @Override public void call(Subscriber<? super T> subscriber) {
+            source.call(new LogSubscriber<>(subscriber, logger));
+        }
+    }
+
+    /**
+     * Lifts {@link LogSingleSubscriber} the same way as {@link Single#lift}, marks instrumented sources
+     */
+    private static final class LogSingleOnSubscribe<T> implements Single.OnSubscribe<T> {
+
+        private final Single.OnSubscribe<T> lifted;
+
+        LogSingleOnSubscribe(Single.OnSubscribe<T> source, EventLogger logger) {
+            this.lifted = new SingleLiftObservableOperator<>(source,
+                    (Observable.Operator<T, T>) child -> new LogSingleSubscriber<>(child, logger));
+        }
+
+        @Override public void call(SingleSubscriber<? super T> subscriber) {
+            lifted.call(subscriber);
+        }
+    }
+
+    /**
+     * Creation hooks set before the instrumentation was installed
+     */
+    @SuppressWarnings("rawtypes") // hook types are declared raw by RxJavaHooks
+    private static final class Previous {
+
+        final Func1<Observable.OnSubscribe, Observable.OnSubscribe> observable = RxJavaHooks.getOnObservableCreate();
+        final Func1<Single.OnSubscribe, Single.OnSubscribe> single = RxJavaHooks.getOnSingleCreate();
+    }
+
+    public static final class Builder {
+
+        private int bitMask = RxLog1.LOG_SUBSCRIBE | RxLog1.LOG_ERROR | RxLog1.LOG_COMPLETE | RxLog1.LOG_DISPOSE;
+        private final List<String> includes = new ArrayList<>();
+        private final List<String> skips = new ArrayList<>();
+        private int cacheSize = DEFAULT_CACHE_SIZE;
+
+        Builder() {
+        }
+
+        /**
+         * @param bitMask events logged for every instrumented source
+         * @return builder
+         */
+        public Builder bitMask(int bitMask) {
+            this.bitMask = bitMask;
+            return this;
+        }
+
+        /**
+         * Instruments only sources created from given packages (or classes), all call sites are
+         * instrumented if no include is set
+         * @param prefixes package or class name prefixes
+         * @return builder
+         */
+        public Builder include(String... prefixes) {
+            Collections.addAll(includes, prefixes);
+            return this;
+        }
+
+        /**
+         * Skips frames of given packages (or classes) when resolving the call site, e.g. wrapper
+         * libraries, so the call site is their caller. Sources are still instrumented, only tagged
+         * by their caller, use {@link #include(String...)} to limit instrumented call sites
+         * @param prefixes package or class name prefixes
+         * @return builder
+         */
+        public Builder skip(String... prefixes) {
+            Collections.addAll(skips, prefixes);
+            return this;
+        }
+
+        /**
+         * @param cacheSize max number of cached call sites
+         * @return builder
+         */
+        public Builder cacheSize(int cacheSize) {
+            if (cacheSize <= 0) {
+                throw new IllegalArgumentException("cacheSize <= 0: " + cacheSize);
+            }
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /**
+         * Installs the instrumentation, replacing previous one if installed
+         */
+        public void install() {
+            RxLog1Assembly.install(new CallSites(bitMask, LogOptions.DEFAULT,
+                    includes.toArray(new String[includes.size()]),
+                    skips.toArray(new String[skips.size()]),
+                    cacheSize));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package sk.teamsoft.rxlog1;
+
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.plugins.RxJavaHooks;
+import sk.teamsoft.rxlog.core.SchedulerStats;
+
+/**
+ * Instrumentation of RxJava1 schedulers via {@link RxJavaHooks#setOnScheduleAction}, which records
+ * queueing delay and execution time of every scheduled action into {@link SchedulerStats}
+ * <p>
+ * Actions scheduled while a logging subscriber emits an item are tagged with its message. The
+ * hook which was set before is kept and applied before the instrumentation
+ * @author Dusan Bartos
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class RxLog1Schedulers {
+
+    private static Previous previous;
+
+    private RxLog1Schedulers() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static synchronized boolean isInstalled() {
+        return previous != null;
+    }
+
+    /**
+     * Installs the instrumentation, replacing previous one if installed
+     */
+    public static synchronized void install() {
+        uninstall();
+        final Previous p = new Previous();
+        previous = p;
+        RxJavaHooks.setOnScheduleAction(action -> {
+            final Action0 a = p.hook != null ? p.hook.call(action) : action;
+            final Runnable task = SchedulerStats.wrap(a::call);
+            return task::run;
+        });
+        SchedulerStats.hookInstalled();
+    }
+
+    /**
+     * Removes the instrumentation and restores hook, which was set before {@link #install()}
+     */
+    public static synchronized void uninstall() {
+        Previous p = previous;
+        if (p != null) {
+            previous = null;
+            RxJavaHooks.setOnScheduleAction(p.hook);
+            SchedulerStats.hookUninstalled();
+        }
+    }
+
+    /**
+     * Schedule hook set before the instrumentation was installed
+     */
+    private static final class Previous {
+
+        final Func1<Action0, Action0> hook = RxJavaHooks.getOnScheduleAction();
+    }
+}
@@ -0,0 +1,85 @@
+package sk.teamsoft.rxlog1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rx.Completable;
+import rx.CompletableSubscriber;
+import rx.Observable;
+import rx.Subscription;
+import sk.teamsoft.rxlog.core.AsyncLog;
+import sk.teamsoft.rxlog.core.EventLogger;
+import sk.teamsoft.rxlog.core.InMemorySink;
+import sk.teamsoft.rxlog.core.LogEvent;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.LogOutput;
+import sk.teamsoft.rxlog.core.LogSink;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Dusan Bartos
+ */
+public class LogCompletableSubscriberTest {
+
+    private static final int MASK = RxLog1.LOG_COMPLETE | RxLog1.LOG_ERROR | RxLog1.LOG_TERMINATE;
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(16);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void completionIsLoggedInSameOrderAsObservable() {
+        Observable.empty().compose(RxLog1.log("observable", MASK)).subscribe();
+        List<String> observable = events();
+        sink.clear();
+
+        Completable.complete().compose(RxLog1.logCompletable("completable", MASK)).subscribe();
+        assertEquals(observable, events());
+    }
+
+    @Test public void errorIsLoggedInSameOrderAsObservable() {
+        Observable.error(new IllegalStateException()).compose(RxLog1.log("observable", MASK)).subscribe(o -> {}, e -> {});
+        List<String> observable = events();
+        sink.clear();
+
+        Completable.error(new IllegalStateException()).compose(RxLog1.logCompletable("completable", MASK)).subscribe(() -> {}, e -> {});
+        assertEquals(observable, events());
+    }
+
+    @Test public void notUnsubscribedBeforeSubscribe() {
+        LogCompletableSubscriber subscriber = new LogCompletableSubscriber(new CompletableSubscriber() {
+            @Override public void onCompleted() {
+            }
+
+            @Override public void onError(Throwable e) {
+            }
+
+            @Override public void onSubscribe(Subscription d) {
+            }
+        }, new EventLogger("completable", MASK, LogOptions.DEFAULT));
+        assertFalse(subscriber.isUnsubscribed());
+    }
+
+    private List<String> events() {
+        List<String> events = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            events.add(event.event);
+        }
+        return events;
+    }
+}
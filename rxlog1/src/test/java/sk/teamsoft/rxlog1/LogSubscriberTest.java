@@ -0,0 +1,104 @@
+package sk.teamsoft.rxlog1;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rx.Observable;
+import rx.Single;
+import rx.observers.TestSubscriber;
+import sk.teamsoft.rxlog.core.AsyncLog;
+import sk.teamsoft.rxlog.core.InMemorySink;
+import sk.teamsoft.rxlog.core.LogEvent;
+import sk.teamsoft.rxlog.core.LogOptions;
+import sk.teamsoft.rxlog.core.LogOutput;
+import sk.teamsoft.rxlog.core.LogSink;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Dusan Bartos
+ */
+public class LogSubscriberTest {
+
+    private LogSink previous;
+    private InMemorySink sink;
+
+    @Before public void setUp() {
+        AsyncLog.stop();
+        previous = LogOutput.getSink();
+        sink = new InMemorySink(256);
+        LogOutput.setSink(sink);
+    }
+
+    @After public void tearDown() {
+        LogOutput.setSink(previous);
+    }
+
+    @Test public void lifecycleIsLoggedOncePerEvent() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Observable.just(1, 2)
+                .compose(RxLog1.<Integer>log("obs", RxLog1.LOG_SUBSCRIBE | RxLog1.LOG_NEXT_DATA | RxLog1.LOG_COMPLETE | RxLog1.LOG_TERMINATE))
+                .subscribe(subscriber);
+        subscriber.assertValues(1, 2);
+        subscriber.assertCompleted();
+
+        assertEquals(Arrays.asList("subscribe", "onNext", "onNext", "terminate", "onComplete"), events());
+    }
+
+    @Test public void unsubscribeIsLogged() {
+        TestSubscriber<Object> subscriber = new TestSubscriber<>();
+        Observable.never()
+                .compose(RxLog1.log("never", RxLog1.LOG_SUBSCRIBE | RxLog1.LOG_DISPOSE))
+                .subscribe(subscriber);
+        subscriber.unsubscribe();
+
+        assertEquals(Arrays.asList("subscribe", "unsubscribe"), events());
+    }
+
+    @Test public void requestsAreLogged() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(1L);
+        Observable.range(1, 10)
+                .compose(RxLog1.<Integer>log("range", RxLog1.LOG_NEXT_EVENT | RxLog1.LOG_REQUEST))
+                .subscribe(subscriber);
+        subscriber.requestMore(2);
+        subscriber.assertValues(1, 2, 3);
+
+        assertEquals(Arrays.asList("request", "onNext", "request", "onNext", "onNext"), events());
+    }
+
+    @Test public void sampledItemsAreDeliveredButNotLogged() {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+        Observable.range(0, 10)
+                .compose(RxLog1.<Integer>log("sampled", RxLog1.LOG_NEXT_DATA | RxLog1.LOG_COMPLETE, LogOptions.builder()
+                        .everyNth(5)
+                        .build()))
+                .subscribe(subscriber);
+        subscriber.assertValueCount(10);
+
+        assertEquals(Arrays.asList("onNext", "onNext", "onComplete", "sampled"), events());
+    }
+
+    @Test public void singleSuccessIsLogged() {
+        TestSubscriber<String> subscriber = new TestSubscriber<>();
+        Single.just("value")
+                .compose(RxLog1.<String>logSingle("single", RxLog1.LOG_NEXT_DATA | RxLog1.LOG_DISPOSE))
+                .subscribe(subscriber);
+        subscriber.assertValue("value");
+
+        // RxJava1 unsubscribes subscribers after the terminal event, same as doOnUnsubscribe
+        assertEquals(Arrays.asList("onSuccess", "unsubscribe"), events());
+    }
+
+    private List<String> events() {
+        List<String> events = new ArrayList<>();
+        for (LogEvent event : sink.events()) {
+            events.add(event.event);
+        }
+        return events;
+    }
+}